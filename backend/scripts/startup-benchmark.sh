@@ -0,0 +1,159 @@
+#!/bin/bash
+# ==============================================================================
+# Benchmark de arranque del Backend Dental SaaS
+# ==============================================================================
+# Arranca la aplicación RUNS veces por modo y mide:
+#   - ready_ms:        desde el lanzamiento hasta /readyz = UP
+#   - started_ms:      tiempo reportado por Spring ("Started DentalApplication in ...")
+#   - login_ms:        latencia del primer POST /api/auth/login
+#   - appointments_ms: latencia del primer GET /api/appointments
+#   - dashboard_ms:    latencia del primer GET /api/dashboard/stats
+#
+# Modos (MODES, separados por coma):
+#   jar     → fat jar de bootJar
+#   cds     → build/cds/app.jar con -XX:SharedArchiveFile=app.jsa (./gradlew cdsArchive)
+#   native  → build/native/nativeCompile/dental-backend (./gradlew nativeCompile -Pnative)
+#
+# Uso normal vía Gradle: ./gradlew startupBenchmark [-Paot] [-Pstartup.runs=5]
+# Requiere PostgreSQL levantado (docker/postgres) con los datos de prueba.
+# ==============================================================================
+
+set -euo pipefail
+
+JAVA_CMD=${JAVA_CMD:-java}
+RUNS=${RUNS:-5}
+MODES=${MODES:-jar,cds,native}
+AOT=${AOT:-false}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+LOGIN_EMAIL=${LOGIN_EMAIL:-admin@clinicaabc.com}
+LOGIN_PASSWORD=${LOGIN_PASSWORD:-password123}
+READY_TIMEOUT_MS=${READY_TIMEOUT_MS:-60000}
+BOOT_JAR=${BOOT_JAR:-$(ls build/libs/*-SNAPSHOT.jar 2>/dev/null | grep -v plain | head -1 || true)}
+CDS_DIR=build/cds
+NATIVE_BIN=build/native/nativeCompile/dental-backend
+REPORT=${REPORT:-build/reports/startup/results.csv}
+LOG_DIR=$(dirname "$REPORT")
+
+AOT_FLAGS=()
+if [ "$AOT" = "true" ]; then
+    AOT_FLAGS=(-Dspring.aot.enabled=true)
+fi
+
+mkdir -p "$LOG_DIR"
+echo "mode,run,ready_ms,started_ms,login_ms,appointments_ms,dashboard_ms" > "$REPORT"
+
+now_ms() {
+    date +%s%3N
+}
+
+# Tiempo total de una petición en ms (curl -w time_total está en segundos)
+request_ms() {
+    curl -s -o "$LOG_DIR/body.tmp" -w '%{time_total}' "$@" | awk '{ printf "%d", $1 * 1000 }'
+}
+
+launch() {
+    local mode=$1 log=$2
+    case $mode in
+        jar)
+            "$JAVA_CMD" "${AOT_FLAGS[@]}" -jar "$BOOT_JAR" > "$log" 2>&1 &
+            ;;
+        cds)
+            (cd "$CDS_DIR" && exec "$JAVA_CMD" -XX:SharedArchiveFile=app.jsa "${AOT_FLAGS[@]}" -jar app.jar) > "$log" 2>&1 &
+            ;;
+        native)
+            "$NATIVE_BIN" > "$log" 2>&1 &
+            ;;
+    esac
+    APP_PID=$!
+}
+
+available() {
+    case $1 in
+        jar)    [ -n "$BOOT_JAR" ] && [ -f "$BOOT_JAR" ] ;;
+        cds)    [ -f "$CDS_DIR/app.jar" ] && [ -f "$CDS_DIR/app.jsa" ] ;;
+        native) [ -x "$NATIVE_BIN" ] ;;
+        *)      return 1 ;;
+    esac
+}
+
+stop() {
+    kill "$APP_PID" 2>/dev/null || true
+    wait "$APP_PID" 2>/dev/null || true
+}
+
+run_once() {
+    local mode=$1 run=$2
+    local log="$LOG_DIR/$mode-$run.log"
+
+    local t0
+    t0=$(now_ms)
+    launch "$mode" "$log"
+
+    until curl -sf "$BASE_URL/readyz" > /dev/null 2>&1; do
+        if ! kill -0 "$APP_PID" 2>/dev/null; then
+            echo "❌ $mode #$run terminó antes de estar listo (ver $log)" >&2
+            return 1
+        fi
+        if [ $(( $(now_ms) - t0 )) -gt "$READY_TIMEOUT_MS" ]; then
+            echo "❌ $mode #$run no estuvo listo en ${READY_TIMEOUT_MS}ms (ver $log)" >&2
+            stop
+            return 1
+        fi
+        sleep 0.02
+    done
+    local ready_ms=$(( $(now_ms) - t0 ))
+
+    local started_ms
+    started_ms=$(sed -n 's/.*Started DentalApplication in \([0-9.]*\) seconds.*/\1/p' "$log" \
+        | awk '{ printf "%d", $1 * 1000 }')
+
+    local login_ms token appointments_ms dashboard_ms
+    login_ms=$(request_ms -X POST "$BASE_URL/api/auth/login" \
+        -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$LOGIN_EMAIL\",\"password\":\"$LOGIN_PASSWORD\"}")
+    token=$(sed -n 's/.*"token":"\([^"]*\)".*/\1/p' "$LOG_DIR/body.tmp")
+    appointments_ms=$(request_ms "$BASE_URL/api/appointments" -H "Authorization: Bearer $token")
+    dashboard_ms=$(request_ms "$BASE_URL/api/dashboard/stats" -H "Authorization: Bearer $token")
+
+    stop
+
+    echo "$mode,$run,$ready_ms,${started_ms:-},$login_ms,$appointments_ms,$dashboard_ms" >> "$REPORT"
+    printf "  %-7s #%-2s listo %6s ms | login %5s ms | citas %5s ms | dashboard %5s ms\n" \
+        "$mode" "$run" "$ready_ms" "$login_ms" "$appointments_ms" "$dashboard_ms"
+}
+
+if curl -s -o /dev/null "$BASE_URL" 2>/dev/null; then
+    echo "❌ Ya hay algo escuchando en el puerto $PORT; detén el backend antes del benchmark" >&2
+    exit 1
+fi
+
+echo "⏱️  Benchmark de arranque (runs=$RUNS, aot=$AOT)"
+IFS=',' read -ra MODE_LIST <<< "$MODES"
+for mode in "${MODE_LIST[@]}"; do
+    if ! available "$mode"; then
+        echo "  $mode: no disponible, se omite"
+        continue
+    fi
+    for run in $(seq 1 "$RUNS"); do
+        run_once "$mode" "$run" || true
+    done
+done
+rm -f "$LOG_DIR/body.tmp"
+
+echo ""
+echo "📊 Mediana por modo:"
+for mode in "${MODE_LIST[@]}"; do
+    awk -F, -v mode="$mode" '
+        NR > 1 && $1 == mode { n++; ready[n] = $3; login[n] = $5; appts[n] = $6; dash[n] = $7 }
+        function median(a, n,    i, j, t) {
+            for (i = 1; i <= n; i++) for (j = i + 1; j <= n; j++) if (a[j] < a[i]) { t = a[i]; a[i] = a[j]; a[j] = t }
+            return (n % 2) ? a[(n + 1) / 2] : int((a[n / 2] + a[n / 2 + 1]) / 2)
+        }
+        END {
+            if (n > 0) printf "  %-7s listo %6d ms | login %5d ms | citas %5d ms | dashboard %5d ms\n",
+                mode, median(ready, n), median(login, n), median(appts, n), median(dash, n)
+        }' "$REPORT"
+done
+echo ""
+echo "Detalle: $REPORT"
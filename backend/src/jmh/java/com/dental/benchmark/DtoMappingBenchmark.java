@@ -0,0 +1,91 @@
+package com.dental.benchmark;
+
+import com.dental.cache.SingleFlight;
+import com.dental.config.AppointmentPartitionProperties;
+import com.dental.config.DeadlineProperties;
+import com.dental.domain.model.Patient;
+import com.dental.domain.model.User;
+import com.dental.dto.AppointmentDTO;
+import com.dental.dto.PatientDTO;
+import com.dental.repository.AppointmentRepository;
+import com.dental.repository.PatientRepository;
+import com.dental.service.AppointmentService;
+import com.dental.service.PatientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping through the public service methods, backed by in-memory
+ * repository stubs so only the mapping and reactive assembly are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DtoMappingBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private UUID tenantId;
+    private PatientService patientService;
+    private AppointmentService appointmentService;
+
+    @Setup
+    public void setUp() {
+        tenantId = UUID.randomUUID();
+        List<Patient> patients = new ArrayList<>();
+        List<AppointmentDTO> appointments = new ArrayList<>();
+        User dentist = new User(UUID.randomUUID(), tenantId, null, "dentist@clinicaabc.com", "hash",
+                "María", "Dentista", "DENTIST", true, LocalDateTime.now());
+        for (int i = 0; i < rows; i++) {
+            Patient patient = new Patient();
+            patient.setId(UUID.randomUUID());
+            patient.setTenantId(tenantId);
+            patient.setFirstName("Paciente" + i);
+            patient.setLastName("Apellido" + i);
+            patient.setPhone("987" + i);
+            patient.setEmail("paciente" + i + "@email.com");
+            patient.setBirthDate(LocalDate.of(1980, 1, 1).plusDays(i));
+            patients.add(patient);
+
+            appointments.add(new AppointmentDTO(UUID.randomUUID(), patient.getId(), patient.getFirstName() + " " + patient.getLastName(),
+                    dentist.getId(), dentist.getFirstName() + " " + dentist.getLastName(),
+                    LocalDateTime.now().plusHours(i), 30, "SCHEDULED", "Control"));
+        }
+        Map<UUID, Patient> patientsById = new HashMap<>();
+        patients.forEach(p -> patientsById.put(p.getId(), p));
+
+        PatientRepository patientRepository = Stubs.stub(PatientRepository.class, Map.of(
+                "findByTenantIdAndNotDeleted", args -> Flux.fromIterable(patients),
+                "findById", args -> Mono.justOrEmpty(patientsById.get((UUID) args[0]))));
+        // Patient and dentist names come from the JOIN projection, one row per appointment
+        AppointmentRepository appointmentRepository = Stubs.stub(AppointmentRepository.class, Map.of(
+                "findAllWithNamesByTenantIdSince", args -> Flux.fromIterable(appointments)));
+
+        patientService = new PatientService(patientRepository, null, null);
+        appointmentService = new AppointmentService(appointmentRepository, null, new SingleFlight(new SimpleMeterRegistry(), new DeadlineProperties()), null,
+                new AppointmentPartitionProperties(), Duration.ZERO);
+    }
+
+    @Benchmark
+    public List<PatientDTO> patientToDTO() {
+        return patientService.getAllPatients(tenantId).collectList().block();
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> appointmentWithNames() {
+        return appointmentService.getAllAppointments(tenantId).collectList().block();
+    }
+}
@@ -0,0 +1,63 @@
+package com.dental.benchmark;
+
+import com.dental.dto.AppointmentDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a Flux&lt;AppointmentDTO&gt; the way WebFlux does for list endpoints
+ * (Jackson2JsonEncoder writing a JSON array into data buffers).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    private static final ResolvableType ELEMENT_TYPE = ResolvableType.forClass(AppointmentDTO.class);
+
+    @Param({"100", "1000", "10000"})
+    public int rows;
+
+    private Jackson2JsonEncoder encoder;
+    private List<AppointmentDTO> appointments;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        encoder = new Jackson2JsonEncoder(objectMapper);
+        appointments = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2026, 2, 9, 8, 0);
+        for (int i = 0; i < rows; i++) {
+            appointments.add(new AppointmentDTO(UUID.randomUUID(), UUID.randomUUID(), "Paciente " + i,
+                    UUID.randomUUID(), "María Dentista", start.plusMinutes(30L * i), 30, "SCHEDULED",
+                    "Limpieza dental y revisión general"));
+        }
+    }
+
+    @Benchmark
+    public long encodeFlux() {
+        return encoder.encode(Flux.fromIterable(appointments), DefaultDataBufferFactory.sharedInstance,
+                        ELEMENT_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap())
+                .map(buffer -> {
+                    int size = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) size;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+}
@@ -0,0 +1,70 @@
+package com.dental.benchmark;
+
+import com.dental.security.JwtAuthenticationFilter;
+import com.dental.security.JwtUtil;
+import com.dental.security.TenantContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT generation/validation in JwtUtil and the full JwtAuthenticationFilter path
+ * (header parsing, claim extraction, context propagation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLongForHS256Algorithm";
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private WebFilterChain chain;
+    private String token;
+    private UUID userId;
+    private UUID tenantId;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 28_800_000L);
+        filter = new JwtAuthenticationFilter(jwtUtil);
+        chain = exchange -> TenantContext.getTenantId().then();
+        userId = UUID.randomUUID();
+        tenantId = UUID.randomUUID();
+        token = jwtUtil.generateToken(userId, tenantId, "dentist@clinicaabc.com", "DENTIST");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userId, tenantId, "dentist@clinicaabc.com", "DENTIST");
+    }
+
+    @Benchmark
+    public Object validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Void authenticationFilter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/appointments")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        return filter.filter(exchange, chain).block();
+    }
+
+    @Benchmark
+    public Void authenticationFilterWithoutToken() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/appointments"));
+        return filter.filter(exchange, e -> Mono.empty()).block();
+    }
+}
@@ -0,0 +1,41 @@
+package com.dental.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt cost per login/password change at different strengths
+ * (SecurityConfig currently uses the default strength of 10).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class PasswordEncoderBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("password123");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("password123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("password123", hash);
+    }
+}
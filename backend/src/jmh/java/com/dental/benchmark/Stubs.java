@@ -0,0 +1,33 @@
+package com.dental.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Minimal repository stubs for benchmarks: each interface method is answered by name,
+ * without a mocking framework adding noise to the measurements.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.dental.benchmark;
+
+import com.dental.dto.AppointmentDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs CBOR vs Smile for an appointment list: encode and decode time. Payload sizes
+ * are printed once per trial so the size/speed trade-off can be read from one run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<AppointmentDTO>> LIST_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private ObjectMapper mapper;
+    private List<AppointmentDTO> appointments;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        mapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        appointments = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2026, 2, 9, 8, 0);
+        for (int i = 0; i < rows; i++) {
+            appointments.add(new AppointmentDTO(UUID.randomUUID(), UUID.randomUUID(), "Paciente " + i,
+                    UUID.randomUUID(), "María Dentista", start.plusMinutes(30L * i), 30, "SCHEDULED",
+                    "Limpieza dental y revisión general"));
+        }
+        encoded = mapper.writeValueAsBytes(appointments);
+        System.out.printf("%n%s, %d rows: %d bytes%n", format, rows, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(appointments);
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> decode() throws IOException {
+        return mapper.readValue(encoded, LIST_TYPE);
+    }
+}
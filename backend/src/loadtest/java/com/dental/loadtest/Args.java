@@ -0,0 +1,38 @@
+package com.dental.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses {@code --key=value} arguments (passed from Gradle as {@code -Plt.key=value}).
+ */
+final class Args {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    Args(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+    }
+
+    String string(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    int integer(String key, int defaultValue) {
+        return values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+    }
+
+    long longValue(String key, long defaultValue) {
+        return values.containsKey(key) ? Long.parseLong(values.get(key)) : defaultValue;
+    }
+
+    Duration duration(String key, Duration defaultValue) {
+        return values.containsKey(key) ? Duration.parse(values.get(key)) : defaultValue;
+    }
+}
@@ -0,0 +1,210 @@
+package com.dental.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Seeds the local Postgres (schema from docker/postgres/init.sql) with synthetic tenants of
+ * realistic size using COPY. Every tenant gets an admin login
+ * {@code admin@tenant<N>.loadtest} / {@code password123}, which LoadGenerator uses.
+ *
+ * <pre>
+ * ./gradlew seedLoadTestData -Plt.tenants=20 -Plt.patients=2000 -Plt.years=3
+ * </pre>
+ */
+public class DataSeeder {
+
+    // BCrypt of "password123", same as the fixtures in init.sql
+    static final String PASSWORD_HASH = "$2a$10$k4OHFaIKKNfAzCr7fL8nQuqCHKralTk/ebLjOkMM8x1q6uD0V.ogK";
+    static final String PASSWORD = "password123";
+
+    private static final String[] FIRST_NAMES = {"Ana", "Luis", "María", "Carlos", "Rosa", "Jorge", "Elena", "Pedro", "Sofía", "Ricardo"};
+    private static final String[] LAST_NAMES = {"García", "López", "Martínez", "Sánchez", "Torres", "Vega", "Silva", "Morales", "Ramírez", "Fernández"};
+    private static final String[] STATUSES = {"COMPLETED", "COMPLETED", "COMPLETED", "CONFIRMED", "CANCELLED", "NO_SHOW"};
+    private static final String[] SPECIALTIES = {"Odontología General", "Ortodoncia", "Endodoncia", "Implantología", "Higienista Dental"};
+
+    private final Args args;
+    private final Random random;
+
+    DataSeeder(Args args) {
+        this.args = args;
+        this.random = new Random(args.longValue("seed", 42L));
+    }
+
+    public static void main(String[] argv) throws Exception {
+        new DataSeeder(new Args(argv)).run();
+    }
+
+    void run() throws SQLException, java.io.IOException {
+        int tenants = args.integer("tenants", 5);
+        int offset = args.integer("tenant-offset", 0);
+        String url = args.string("jdbc-url", "jdbc:postgresql://localhost:5432/dental_db");
+
+        try (Connection connection = DriverManager.getConnection(url,
+                args.string("user", "dental_user"), args.string("password", "dental_pass"))) {
+            connection.setAutoCommit(false);
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            for (int n = offset; n < offset + tenants; n++) {
+                long start = System.nanoTime();
+                TenantCounts counts = seedTenant(connection, copy, n);
+                connection.commit();
+                System.out.printf("tenant %d: %d patients, %d staff, %d appointments (%d ms)%n",
+                        n, counts.patients, counts.staff, counts.appointments, (System.nanoTime() - start) / 1_000_000);
+            }
+            refreshDerivedTables(connection);
+            connection.commit();
+        }
+    }
+
+    private TenantCounts seedTenant(Connection connection, CopyManager copy, int n) throws SQLException, java.io.IOException {
+        UUID tenantId = UUID.randomUUID();
+        int patientCount = args.integer("patients", 1000);
+        int dentistCount = args.integer("dentists", 4);
+        int assistantCount = args.integer("assistants", 4);
+        int years = args.integer("years", 2);
+        int perDentistPerDay = args.integer("appointments-per-dentist-day", 8);
+
+        copy.copyIn("COPY tenants (id, name, contact_email, phone, active) FROM STDIN",
+                new StringReader(row(tenantId, "Clínica Carga " + n, "contacto@tenant" + n + ".loadtest", "900000000", "t")));
+
+        // Users: one admin plus one login per dentist
+        StringBuilder users = new StringBuilder();
+        users.append(row(UUID.randomUUID(), tenantId, "admin@tenant" + n + ".loadtest", PASSWORD_HASH,
+                "Admin", "Carga" + n, "ADMIN", "t"));
+        List<UUID> dentistUserIds = new ArrayList<>();
+        for (int d = 0; d < dentistCount; d++) {
+            UUID userId = UUID.randomUUID();
+            dentistUserIds.add(userId);
+            users.append(row(userId, tenantId, "dentist" + d + "@tenant" + n + ".loadtest", PASSWORD_HASH,
+                    pick(FIRST_NAMES), pick(LAST_NAMES), "DENTIST", "t"));
+        }
+        copy.copyIn("COPY users (id, tenant_id, email, password, first_name, last_name, role, active) FROM STDIN",
+                new StringReader(users.toString()));
+
+        StringBuilder staff = new StringBuilder();
+        int staffCount = dentistCount + assistantCount;
+        for (int s = 0; s < staffCount; s++) {
+            String userId = s < dentistCount ? dentistUserIds.get(s).toString() : "\\N";
+            staff.append(row(UUID.randomUUID(), tenantId, userId, pick(FIRST_NAMES), pick(LAST_NAMES), "900" + s,
+                    "staff" + s + "@tenant" + n + ".loadtest", pick(SPECIALTIES), "LIC-" + n + "-" + s,
+                    LocalDate.now().minusYears(years).plusDays(s), "t"));
+        }
+        copy.copyIn("COPY staff (id, tenant_id, user_id, first_name, last_name, phone, email, specialty, license_number, hire_date, active) FROM STDIN",
+                new StringReader(staff.toString()));
+        try (PreparedStatement link = connection.prepareStatement(
+                "UPDATE users u SET staff_id = s.id FROM staff s WHERE s.user_id = u.id AND s.tenant_id = ?")) {
+            link.setObject(1, tenantId);
+            link.executeUpdate();
+        }
+
+        LocalDate firstDay = LocalDate.now().minusYears(years);
+        List<UUID> patientIds = new ArrayList<>(patientCount);
+        StringBuilder patients = new StringBuilder();
+        for (int p = 0; p < patientCount; p++) {
+            UUID patientId = UUID.randomUUID();
+            patientIds.add(patientId);
+            LocalDateTime createdAt = firstDay.plusDays(random.nextInt(365 * years)).atTime(9, 0);
+            patients.append(row(patientId, tenantId, pick(FIRST_NAMES), pick(LAST_NAMES), "9" + (10000000 + p),
+                    "paciente" + p + "@tenant" + n + ".loadtest", LocalDate.of(1950, 1, 1).plusDays(random.nextInt(25000)),
+                    createdAt));
+        }
+        copy.copyIn("COPY patients (id, tenant_id, first_name, last_name, phone, email, birth_date, created_at) FROM STDIN",
+                new StringReader(patients.toString()));
+
+        // Appointments: working days, 30-60 min slots from 08:00, past ones mostly completed
+        long appointments = 0;
+        StringBuilder batch = new StringBuilder();
+        LocalDate lastDay = LocalDate.now().plusDays(60);
+        // Monthly partitions for the whole range: appointments has no default partition
+        try (PreparedStatement partitions = connection.prepareStatement("SELECT create_appointments_partitions(?, ?)")) {
+            partitions.setObject(1, firstDay);
+            partitions.setObject(2, lastDay.plusMonths(1));
+            partitions.execute();
+        }
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            for (UUID dentistId : dentistUserIds) {
+                LocalDateTime slot = day.atTime(8, 0);
+                for (int a = 0; a < perDentistPerDay; a++) {
+                    int duration = random.nextBoolean() ? 30 : 60;
+                    String status = day.isBefore(LocalDate.now()) ? pick(STATUSES) : (random.nextInt(10) < 8 ? "SCHEDULED" : "CONFIRMED");
+                    batch.append(row(UUID.randomUUID(), tenantId, patientIds.get(random.nextInt(patientIds.size())), dentistId,
+                            slot, duration, status, "Cita generada"));
+                    slot = slot.plusMinutes(duration);
+                    appointments++;
+                }
+            }
+            if (batch.length() > 4_000_000) {
+                copyAppointments(copy, batch);
+            }
+        }
+        copyAppointments(copy, batch);
+        return new TenantCounts(patientCount, staffCount, appointments);
+    }
+
+    private void copyAppointments(CopyManager copy, StringBuilder batch) throws SQLException, java.io.IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        copy.copyIn("COPY appointments (id, tenant_id, patient_id, dentist_id, start_time, duration_minutes, status, notes) FROM STDIN",
+                new StringReader(batch.toString()));
+        batch.setLength(0);
+    }
+
+    private void refreshDerivedTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO tenant_stats (tenant_id, total_patients, active_staff, appointments_pending) " +
+                    "SELECT t.id, " +
+                    "(SELECT COUNT(*) FROM patients p WHERE p.tenant_id = t.id AND p.deleted_at IS NULL), " +
+                    "(SELECT COUNT(*) FROM staff s WHERE s.tenant_id = t.id AND s.deleted_at IS NULL), " +
+                    "(SELECT COUNT(*) FROM appointments a WHERE a.tenant_id = t.id AND a.status = 'SCHEDULED') " +
+                    "FROM tenants t ON CONFLICT (tenant_id) DO UPDATE SET " +
+                    "total_patients = EXCLUDED.total_patients, active_staff = EXCLUDED.active_staff, " +
+                    "appointments_pending = EXCLUDED.appointments_pending");
+            statement.execute("INSERT INTO tenant_daily_stats (tenant_id, stat_date, appointments) " +
+                    "SELECT tenant_id, CAST(start_time AS DATE), COUNT(*) FROM appointments " +
+                    "GROUP BY tenant_id, CAST(start_time AS DATE) " +
+                    "ON CONFLICT (tenant_id, stat_date) DO UPDATE SET appointments = EXCLUDED.appointments");
+            statement.execute("INSERT INTO daily_tenant_rollup_dirty (tenant_id, stat_date) " +
+                    "SELECT tenant_id, CAST(start_time AS DATE) FROM appointments " +
+                    "UNION SELECT tenant_id, CAST(created_at AS DATE) FROM patients " +
+                    "ON CONFLICT DO NOTHING");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /** One COPY text-format line; values must not contain tabs or newlines. */
+    private static String row(Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            line.append(values[i]);
+        }
+        return line.append('\n').toString();
+    }
+
+    private record TenantCounts(int patients, int staff, long appointments) {
+    }
+}
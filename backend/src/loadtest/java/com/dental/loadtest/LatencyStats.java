@@ -0,0 +1,96 @@
+package com.dental.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms (microseconds) and error counters.
+ */
+final class LatencyStats {
+
+    private static final long MAX_TRACKABLE_MICROS = Duration.ofMinutes(1).toNanos() / 1000;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final LongAdder dropped = new LongAdder();
+
+    LatencyStats() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean success) {
+        histograms.get(operation).recordValue(Math.min(latencyNanos / 1000, MAX_TRACKABLE_MICROS));
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void print(PrintStream out, Duration measured) {
+        double seconds = measured.toMillis() / 1000.0;
+        out.printf("%-30s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            long count = histogram.getTotalCount();
+            total += count;
+            if (count == 0) {
+                continue;
+            }
+            out.printf(Locale.ROOT, "%-30s %9d %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    operation.label(), count, errors.get(operation).sum(), count / seconds,
+                    millis(histogram, 50), millis(histogram, 95), millis(histogram, 99),
+                    histogram.getMaxValue() / 1000.0);
+        }
+        out.printf(Locale.ROOT, "total: %d requests, %.1f req/s, %d arrivals dropped by the generator%n",
+                total, total / seconds, dropped.sum());
+    }
+
+    void writeJson(Path file, String mode, Duration measured) throws IOException {
+        double seconds = measured.toMillis() / 1000.0;
+        StringBuilder json = new StringBuilder("{\"mode\":\"").append(mode)
+                .append("\",\"durationSeconds\":").append(seconds)
+                .append(",\"dropped\":").append(dropped.sum())
+                .append(",\"endpoints\":{");
+        boolean first = true;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append(String.format(Locale.ROOT,
+                    "\"%s\":{\"requests\":%d,\"errors\":%d,\"throughput\":%.2f,\"p50\":%.2f,\"p95\":%.2f,\"p99\":%.2f,\"p999\":%.2f,\"max\":%.2f}",
+                    operation.name(), histogram.getTotalCount(), errors.get(operation).sum(),
+                    histogram.getTotalCount() / seconds, millis(histogram, 50), millis(histogram, 95),
+                    millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0));
+        }
+        json.append("}}\n");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, json.toString());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
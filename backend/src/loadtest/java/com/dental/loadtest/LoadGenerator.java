@@ -0,0 +1,203 @@
+package com.dental.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replays a clinic workday mix against a running backend seeded by {@link DataSeeder}.
+ *
+ * <ul>
+ *   <li>{@code closed}: {@code concurrency} virtual users, each issuing the next request after
+ *       the previous one finishes plus a think time. Measures the throughput the server sustains.</li>
+ *   <li>{@code open}: requests arrive at a fixed {@code rate} per second regardless of how fast the
+ *       server answers. Latency is measured from the scheduled arrival time, so queueing inside the
+ *       server is not hidden (no coordinated omission).</li>
+ * </ul>
+ *
+ * <pre>
+ * ./gradlew loadTest -Plt.mode=open -Plt.rate=200 -Plt.duration=PT2M -Plt.tenants=20
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private final Args args;
+    private final WebClient client;
+    private final LatencyStats stats = new LatencyStats();
+    private final Operation[] mix;
+    private volatile long recordFromNanos;
+
+    LoadGenerator(Args args) {
+        this.args = args;
+        ConnectionProvider provider = ConnectionProvider.builder("loadtest")
+                .maxConnections(args.integer("max-connections", 500))
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = WebClient.builder()
+                .baseUrl(args.string("base-url", "http://localhost:8080"))
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+        List<Operation> weighted = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            for (int i = 0; i < operation.weight(); i++) {
+                weighted.add(operation);
+            }
+        }
+        this.mix = weighted.toArray(Operation[]::new);
+    }
+
+    public static void main(String[] argv) throws Exception {
+        new LoadGenerator(new Args(argv)).run();
+    }
+
+    void run() throws Exception {
+        String mode = args.string("mode", "closed");
+        Duration duration = args.duration("duration", Duration.ofMinutes(1));
+        Duration warmup = args.duration("warmup", Duration.ofSeconds(15));
+
+        List<Session> sessions = openSessions();
+        System.out.printf("%d tenant sessions ready, running %s loop for %s (+%s warm-up)%n",
+                sessions.size(), mode, duration, warmup);
+
+        recordFromNanos = System.nanoTime() + warmup.toNanos();
+        Duration total = warmup.plus(duration);
+        Mono<Void> load = "open".equals(mode) ? openLoop(sessions, total) : closedLoop(sessions, total);
+        load.block();
+
+        stats.print(System.out, duration);
+        String report = args.string("report", "");
+        if (!report.isEmpty()) {
+            stats.writeJson(Path.of(report), mode, duration);
+        }
+    }
+
+    private List<Session> openSessions() {
+        int tenants = args.integer("tenants", 5);
+        int offset = args.integer("tenant-offset", 0);
+        return Flux.range(offset, tenants)
+                .flatMap(n -> login("admin@tenant" + n + ".loadtest")
+                        .flatMap(token -> Mono.zip(
+                                ids("/api/patients", token),
+                                ids("/api/dentists", token),
+                                (patients, dentists) -> new Session(n, token, patients, dentists))), 8)
+                .filter(session -> !session.patientIds().isEmpty() && !session.dentistIds().isEmpty())
+                .collectList()
+                .block();
+    }
+
+    private Mono<Void> closedLoop(List<Session> sessions, Duration total) {
+        int concurrency = args.integer("concurrency", 50);
+        Duration thinkTime = args.duration("think-time", Duration.ofMillis(100));
+        long deadline = System.nanoTime() + total.toNanos();
+        return Flux.range(0, concurrency)
+                .flatMap(user -> {
+                    Session session = sessions.get(user % sessions.size());
+                    return Mono.defer(() -> execute(session, nextOperation(), System.nanoTime()))
+                            .then(Mono.delay(thinkTime))
+                            .repeat(() -> System.nanoTime() < deadline);
+                }, concurrency)
+                .then();
+    }
+
+    private Mono<Void> openLoop(List<Session> sessions, Duration total) {
+        int rate = args.integer("rate", 100);
+        long periodNanos = 1_000_000_000L / rate;
+        long start = System.nanoTime();
+        long arrivals = total.toNanos() / periodNanos;
+        return Flux.interval(Duration.ofNanos(periodNanos))
+                .onBackpressureDrop(tick -> stats.dropped())
+                .take(arrivals)
+                .flatMap(tick -> {
+                    Session session = sessions.get((int) (tick % sessions.size()));
+                    return execute(session, nextOperation(), start + tick * periodNanos);
+                }, args.integer("max-in-flight", 10_000))
+                .then();
+    }
+
+    private Operation nextOperation() {
+        return mix[ThreadLocalRandom.current().nextInt(mix.length)];
+    }
+
+    private Mono<Void> execute(Session session, Operation operation, long intendedStartNanos) {
+        return request(session, operation)
+                .then(Mono.just(true))
+                .onErrorReturn(false)
+                .doOnNext(success -> {
+                    if (intendedStartNanos >= recordFromNanos) {
+                        stats.record(operation, System.nanoTime() - intendedStartNanos, success);
+                    }
+                })
+                .then();
+    }
+
+    private Mono<?> request(Session session, Operation operation) {
+        LocalDate today = LocalDate.now();
+        return switch (operation) {
+            case LOGIN -> login("admin@tenant" + session.tenant() + ".loadtest");
+            case CALENDAR_DAY -> get(session, "/api/appointments?startDate=" + today + "&endDate=" + today);
+            case CALENDAR_WEEK -> get(session, "/api/appointments?startDate=" + today.minusDays(today.getDayOfWeek().getValue() - 1)
+                    + "&endDate=" + today.plusDays(7 - today.getDayOfWeek().getValue()));
+            case DASHBOARD -> get(session, "/api/dashboard/stats");
+            case DENTISTS -> get(session, "/api/dentists");
+            case PATIENTS -> get(session, "/api/patients");
+            case BOOKING -> client.post().uri("/api/appointments")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + session.token())
+                    .bodyValue(booking(session))
+                    .retrieve()
+                    .toBodilessEntity();
+        };
+    }
+
+    private Mono<?> get(Session session, String uri) {
+        return client.get().uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + session.token())
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private Map<String, Object> booking(Session session) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime start = LocalDate.now().plusDays(1 + random.nextInt(30)).atTime(8 + random.nextInt(10), 0);
+        return Map.of(
+                "patientId", session.patientIds().get(random.nextInt(session.patientIds().size())),
+                "dentistId", session.dentistIds().get(random.nextInt(session.dentistIds().size())),
+                "startTime", start.toString(),
+                "durationMinutes", 30,
+                "status", "SCHEDULED",
+                "notes", "Cita de prueba de carga");
+    }
+
+    private Mono<String> login(String email) {
+        return client.post().uri("/api/auth/login")
+                .bodyValue(Map.of("email", email, "password", DataSeeder.PASSWORD))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(body -> body.get("token").asText());
+    }
+
+    private Mono<List<String>> ids(String uri, String token) {
+        return client.get().uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .retrieve()
+                .bodyToFlux(JsonNode.class)
+                .map(node -> node.get("id").asText())
+                .collectList();
+    }
+
+    private record Session(int tenant, String token, List<String> patientIds, List<String> dentistIds) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.dental.loadtest;
+
+/**
+ * Requests replayed by the load generator with their share of a clinic workday.
+ * Weights are relative; they roughly follow front-desk usage: the calendar is polled
+ * constantly, the dashboard on every navigation, bookings and logins are rare.
+ */
+enum Operation {
+    LOGIN("POST /api/auth/login", 2),
+    CALENDAR_DAY("GET /api/appointments (day)", 30),
+    CALENDAR_WEEK("GET /api/appointments (week)", 10),
+    DASHBOARD("GET /api/dashboard/stats", 20),
+    DENTISTS("GET /api/dentists", 15),
+    PATIENTS("GET /api/patients", 15),
+    BOOKING("POST /api/appointments", 8);
+
+    private final String label;
+    private final int weight;
+
+    Operation(String label, int weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    String label() {
+        return label;
+    }
+
+    int weight() {
+        return weight;
+    }
+}
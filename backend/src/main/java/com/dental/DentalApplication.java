@@ -1,9 +1,12 @@
 package com.dental;
 
+import com.dental.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class DentalApplication {
 
     public static void main(String[] args) {
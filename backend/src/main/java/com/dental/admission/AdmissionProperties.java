@@ -0,0 +1,125 @@
+package com.dental.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-tenant admission control. Each tenant's plan (tenants.plan) maps to a {@link Tier}
+ * with its own concurrency limit, queue length and fair-share weight; {@code maxConcurrent}
+ * caps the requests in flight across all tenants.
+ */
+@ConfigurationProperties(prefix = "dental.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    private int maxConcurrent = 64;
+    private Duration maxQueueWait = Duration.ofSeconds(2);
+    private String defaultPlan = "basic";
+    private Duration planRefreshInterval = Duration.ofMinutes(5);
+    private Map<String, Tier> tiers = new LinkedHashMap<>(Map.of(
+            "basic", new Tier(4, 20, 1),
+            "professional", new Tier(8, 50, 2),
+            "enterprise", new Tier(16, 100, 4)));
+
+    public Tier tier(String plan) {
+        Tier tier = plan != null ? tiers.get(plan.toLowerCase(Locale.ROOT)) : null;
+        return tier != null ? tier : tiers.getOrDefault(defaultPlan, Tier.DEFAULT);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public Duration getMaxQueueWait() {
+        return maxQueueWait;
+    }
+
+    public void setMaxQueueWait(Duration maxQueueWait) {
+        this.maxQueueWait = maxQueueWait;
+    }
+
+    public String getDefaultPlan() {
+        return defaultPlan;
+    }
+
+    public void setDefaultPlan(String defaultPlan) {
+        this.defaultPlan = defaultPlan;
+    }
+
+    public Duration getPlanRefreshInterval() {
+        return planRefreshInterval;
+    }
+
+    public void setPlanRefreshInterval(Duration planRefreshInterval) {
+        this.planRefreshInterval = planRefreshInterval;
+    }
+
+    public Map<String, Tier> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(Map<String, Tier> tiers) {
+        this.tiers = tiers;
+    }
+
+    public static class Tier {
+
+        static final Tier DEFAULT = new Tier(4, 20, 1);
+
+        /** Requests of one tenant running at the same time. */
+        private int maxConcurrent;
+        /** Requests of one tenant waiting for a slot; beyond this they get 429. */
+        private int maxQueue;
+        /** Share of the global capacity relative to other tenants when there is contention. */
+        private int weight;
+
+        public Tier() {
+        }
+
+        public Tier(int maxConcurrent, int maxQueue, int weight) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.weight = weight;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.dental.admission;
+
+/**
+ * A tenant request refused by admission control; answered with 429 and Retry-After.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    public static final String QUEUE_FULL = "queue_full";
+    public static final String QUEUE_TIMEOUT = "queue_timeout";
+
+    private final String reason;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String reason, long retryAfterSeconds) {
+        super("Tenant request rejected by admission control: " + reason, null, false, false);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,211 @@
+package com.dental.admission;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission slots shared by all tenants, handed out with weighted fair queuing.
+ * <p>
+ * A tenant runs at most its tier's {@code maxConcurrent} requests; the rest wait in the
+ * tenant's own FIFO queue (bounded by {@code maxQueue}). Every request is stamped with a
+ * virtual finish tag {@code max(virtualTime, tenant's last tag) + 1 / weight}, and when a
+ * global slot frees up the waiting request with the smallest tag among tenants below their
+ * limit goes next. A tenant with weight 2 therefore gets twice the slots of a weight-1
+ * tenant while both are backlogged, and a tenant that has been idle starts at the current
+ * virtual time instead of reclaiming capacity it did not use.
+ */
+class FairScheduler {
+
+    /** Smoothing factor of the per-tenant service time average used for Retry-After. */
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final int maxConcurrent;
+    private final Map<UUID, TenantQueue> tenants = new HashMap<>();
+    private int inFlight;
+    private int queued;
+    private double virtualTime;
+
+    FairScheduler(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * Emits a {@link Permit} once the request may run; errors with
+     * {@link AdmissionRejectedException} when the tenant's queue is full. Cancelling
+     * while queued gives up the place in the queue.
+     */
+    Mono<Permit> acquire(UUID tenantId, AdmissionProperties.Tier tier) {
+        return Mono.create(sink -> {
+            Waiter waiter = null;
+            Permit permit = null;
+            long rejectRetryAfter = 0;
+            synchronized (this) {
+                TenantQueue queue = tenants.computeIfAbsent(tenantId, TenantQueue::new);
+                queue.tier = tier;
+                double start = Math.max(virtualTime, queue.lastFinishTag);
+                double finish = start + 1.0 / Math.max(1, tier.getWeight());
+                if (queue.waiters.isEmpty() && queue.inFlight < tier.getMaxConcurrent() && inFlight < maxConcurrent) {
+                    queue.lastFinishTag = finish;
+                    permit = admit(queue, start);
+                } else if (queue.waiters.size() >= tier.getMaxQueue()) {
+                    rejectRetryAfter = retryAfterSeconds(queue);
+                } else {
+                    queue.lastFinishTag = finish;
+                    waiter = new Waiter(queue, start, finish, sink);
+                    queue.waiters.add(waiter);
+                    queued++;
+                }
+            }
+            // Signals go out after the lock is released: downstream runs the request synchronously
+            if (permit != null) {
+                sink.success(permit);
+            } else if (waiter == null) {
+                sink.error(new AdmissionRejectedException(AdmissionRejectedException.QUEUE_FULL, rejectRetryAfter));
+            } else {
+                Waiter pending = waiter;
+                sink.onCancel(() -> cancel(pending));
+            }
+        });
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int queued() {
+        return queued;
+    }
+
+    /**
+     * Seconds a rejected caller of this tenant should wait: the tenant's backlog drained
+     * at its concurrency limit, at its recent average service time.
+     */
+    synchronized long retryAfterSeconds(UUID tenantId) {
+        TenantQueue queue = tenants.get(tenantId);
+        return queue != null ? retryAfterSeconds(queue) : 1;
+    }
+
+    private long retryAfterSeconds(TenantQueue queue) {
+        double backlog = queue.waiters.size() + queue.inFlight + 1;
+        double seconds = backlog * queue.avgServiceMillis / Math.max(1, queue.tier.getMaxConcurrent()) / 1000.0;
+        return Math.max(1, (long) Math.ceil(seconds));
+    }
+
+    private Permit admit(TenantQueue queue, double startTag) {
+        queue.inFlight++;
+        inFlight++;
+        virtualTime = Math.max(virtualTime, startTag);
+        return new Permit(queue);
+    }
+
+    private void cancel(Waiter waiter) {
+        synchronized (this) {
+            if (waiter.queue.waiters.remove(waiter)) {
+                queued--;
+                removeIfIdle(waiter.queue);
+                return;
+            }
+        }
+        // Admitted concurrently with the cancel: the permit never reached the caller
+        if (waiter.permit != null) {
+            waiter.permit.release();
+        }
+    }
+
+    private void release(Permit permit) {
+        List<Waiter> admitted = new ArrayList<>();
+        synchronized (this) {
+            TenantQueue queue = permit.queue;
+            queue.inFlight--;
+            inFlight--;
+            long serviceMillis = (System.nanoTime() - permit.startNanos) / 1_000_000;
+            queue.avgServiceMillis += EWMA_ALPHA * (serviceMillis - queue.avgServiceMillis);
+            dispatch(admitted);
+            removeIfIdle(queue);
+        }
+        for (Waiter waiter : admitted) {
+            waiter.sink.success(waiter.permit);
+        }
+    }
+
+    private void dispatch(List<Waiter> admitted) {
+        while (inFlight < maxConcurrent) {
+            Waiter next = null;
+            for (TenantQueue queue : tenants.values()) {
+                Waiter head = queue.waiters.peekFirst();
+                if (head != null && queue.inFlight < queue.tier.getMaxConcurrent()
+                        && (next == null || head.finishTag < next.finishTag)) {
+                    next = head;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            next.queue.waiters.pollFirst();
+            queued--;
+            next.permit = admit(next.queue, next.startTag);
+            admitted.add(next);
+        }
+    }
+
+    private void removeIfIdle(TenantQueue queue) {
+        if (queue.inFlight == 0 && queue.waiters.isEmpty()) {
+            tenants.remove(queue.tenantId);
+        }
+    }
+
+    private static final class TenantQueue {
+        final UUID tenantId;
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        AdmissionProperties.Tier tier;
+        int inFlight;
+        double lastFinishTag;
+        double avgServiceMillis = 100;
+
+        TenantQueue(UUID tenantId) {
+            this.tenantId = tenantId;
+        }
+    }
+
+    private static final class Waiter {
+        final TenantQueue queue;
+        final double startTag;
+        final double finishTag;
+        final MonoSink<Permit> sink;
+        volatile Permit permit;
+
+        Waiter(TenantQueue queue, double startTag, double finishTag, MonoSink<Permit> sink) {
+            this.queue = queue;
+            this.startTag = startTag;
+            this.finishTag = finishTag;
+            this.sink = sink;
+        }
+    }
+
+    /**
+     * A running request's slot; released exactly once, however many times it is asked to.
+     */
+    final class Permit {
+        private final TenantQueue queue;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(TenantQueue queue) {
+            this.queue = queue;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                FairScheduler.this.release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.dental.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive cap on requests in flight, in the style of Netflix's Gradient2 limit.
+ * <p>
+ * Two moving averages of request latency are kept: a short one (last ~10 requests) and a
+ * long baseline ({@code longWindow} requests). While the short average stays within
+ * {@code rttTolerance} of the baseline the limit grows by about {@code sqrt(limit)} per
+ * sample; once queueing pushes latency above it, the limit is scaled down by
+ * {@code tolerance * long / short} (never below half per step). The limit only moves while
+ * at least half of it is in use, so an idle node does not grow it without evidence.
+ * <p>
+ * Priorities get nested shares of the limit: LOW requests are refused first, then NORMAL,
+ * and CRITICAL ones may use all of it.
+ */
+class GradientLimit {
+
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+
+    private final LoadSheddingProperties properties;
+    private final double longAlpha;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+    private boolean sampled;
+
+    GradientLimit(LoadSheddingProperties properties) {
+        this.properties = properties;
+        this.longAlpha = 2.0 / (Math.max(1, properties.getLongWindow()) + 1);
+        this.limit = properties.getInitialLimit();
+    }
+
+    boolean tryAcquire(RequestPriority priority) {
+        double allowed = switch (priority) {
+            case CRITICAL -> limit;
+            case NORMAL -> limit * properties.getNormalShare();
+            case LOW -> limit * properties.getLowShare();
+        };
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot; a completed request also feeds its latency into the limit.
+     */
+    void release(long rttNanos, boolean completed) {
+        int inFlightAtEnd = inFlight.getAndDecrement();
+        if (completed) {
+            onSample(rttNanos, inFlightAtEnd);
+        }
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    synchronized double shortRttMillis() {
+        return shortRtt / 1_000_000.0;
+    }
+
+    synchronized double longRttMillis() {
+        return longRtt / 1_000_000.0;
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtEnd) {
+        if (!sampled) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            sampled = true;
+            return;
+        }
+        shortRtt += SHORT_ALPHA * (rttNanos - shortRtt);
+        longRtt += longAlpha * (rttNanos - longRtt);
+        // After a sustained slowdown ends, let the baseline come back down faster
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (inFlightAtEnd < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRtt / shortRtt));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        double next = limit * (1 - properties.getSmoothing()) + estimate * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), next));
+    }
+}
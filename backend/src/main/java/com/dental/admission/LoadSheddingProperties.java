@@ -0,0 +1,98 @@
+package com.dental.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive limit on requests in flight across the whole node (see {@link GradientLimit})
+ * and how much of it each {@link RequestPriority} may use.
+ */
+@ConfigurationProperties(prefix = "dental.load-shedding")
+public class LoadSheddingProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 100;
+    private int minLimit = 20;
+    private int maxLimit = 1000;
+    /** Short-term latency may rise to this multiple of the long-term baseline before the limit shrinks. */
+    private double rttTolerance = 1.5;
+    /** Weight of each new estimate in the limit (0-1]. */
+    private double smoothing = 0.2;
+    /** Number of samples the long-term latency baseline averages over. */
+    private int longWindow = 600;
+    /** Fraction of the limit NORMAL requests may occupy; CRITICAL may use all of it. */
+    private double normalShare = 0.9;
+    /** Fraction of the limit LOW requests may occupy. */
+    private double lowShare = 0.7;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+    public double getNormalShare() {
+        return normalShare;
+    }
+
+    public void setNormalShare(double normalShare) {
+        this.normalShare = normalShare;
+    }
+
+    public double getLowShare() {
+        return lowShare;
+    }
+
+    public void setLowShare(double lowShare) {
+        this.lowShare = lowShare;
+    }
+}
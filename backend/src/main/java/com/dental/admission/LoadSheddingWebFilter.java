@@ -0,0 +1,98 @@
+package com.dental.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Node-wide load shedding for the API. Every request takes a slot from a
+ * {@link GradientLimit} that adapts to measured latency; when its priority's share of the
+ * limit is used up it is refused straight away with 503 and Retry-After, before
+ * authentication or any database work. Runs ahead of per-tenant admission
+ * ({@link TenantAdmissionWebFilter}), which decides who gets the slots that remain.
+ * Actuator and other non-API paths are never shed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@EnableConfigurationProperties(LoadSheddingProperties.class)
+public class LoadSheddingWebFilter implements WebFilter {
+
+    private static final byte[] BODY =
+            "{\"error\":\"Server overloaded, please retry\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final LoadSheddingProperties properties;
+    private final GradientLimit limit;
+    private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+
+    public LoadSheddingWebFilter(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = new GradientLimit(properties);
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejected.put(priority, Counter.builder("dental.load.shedding.rejected")
+                    .description("Requests refused by the adaptive concurrency limit")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("dental.load.shedding.limit", limit, GradientLimit::limit)
+                .description("Current adaptive limit on API requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("dental.load.shedding.in.flight", limit, GradientLimit::inFlight)
+                .description("API requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("dental.load.shedding.latency", limit, GradientLimit::shortRttMillis)
+                .description("Moving average of API request latency")
+                .tag("window", "short")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("dental.load.shedding.latency", limit, GradientLimit::longRttMillis)
+                .description("Moving average of API request latency")
+                .tag("window", "long")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !exchange.getRequest().getPath().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        RequestPriority priority = RequestPriority.of(exchange.getRequest());
+        if (!limit.tryAcquire(priority)) {
+            rejected.get(priority).increment();
+            return reject(exchange.getResponse());
+        }
+        long start = System.nanoTime();
+        // Cancelled requests and instant 429s from tenant admission say nothing about latency
+        return chain.filter(exchange)
+                .doFinally(signal -> limit.release(System.nanoTime() - start,
+                        signal != SignalType.CANCEL
+                                && !HttpStatus.TOO_MANY_REQUESTS.equals(exchange.getResponse().getStatusCode())));
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = response.bufferFactory().wrap(BODY);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
@@ -0,0 +1,45 @@
+package com.dental.admission;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.Set;
+
+/**
+ * Shedding priority of an API request, from its method and path. Under overload
+ * {@link #LOW} requests are refused first and {@link #CRITICAL} ones last.
+ */
+public enum RequestPriority {
+
+    /** Login and booking: what a clinic cannot work without. */
+    CRITICAL,
+    NORMAL,
+    /** Full listings, time series and exports: large, and safe to retry later. */
+    LOW;
+
+    private static final Set<String> LIST_PATHS = Set.of(
+            "/api/patients", "/api/staff", "/api/users", "/api/appointments", "/api/dashboard/timeseries");
+
+    public static RequestPriority of(ServerHttpRequest request) {
+        String path = trimTrailingSlash(request.getPath().value());
+        HttpMethod method = request.getMethod();
+        if (HttpMethod.POST.equals(method) && path.equals("/api/auth/login")) {
+            return CRITICAL;
+        }
+        if ((HttpMethod.POST.equals(method) && path.equals("/api/appointments"))
+                || (HttpMethod.PUT.equals(method) && path.startsWith("/api/appointments/"))) {
+            return CRITICAL;
+        }
+        if (path.contains("/export")) {
+            return LOW;
+        }
+        if (HttpMethod.GET.equals(method) && LIST_PATHS.contains(path)) {
+            return LOW;
+        }
+        return NORMAL;
+    }
+
+    private static String trimTrailingSlash(String path) {
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
@@ -0,0 +1,110 @@
+package com.dental.admission;
+
+import com.dental.metrics.TenantTagPolicy;
+import com.dental.security.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-tenant admission control for the API. Runs after the security chain (order -100), so
+ * the JWT filter has already put the tenant on the exchange; requests without a tenant
+ * (login, health) pass straight through.
+ * <p>
+ * Each tenant gets the concurrency limit, queue length and weight of its plan tier
+ * ({@code dental.admission.tiers}); slots across tenants are shared by {@link FairScheduler}.
+ * A request that finds its tenant's queue full, or waits longer than
+ * {@code dental.admission.max-queue-wait}, gets 429 with Retry-After. Queueing delay is
+ * recorded per tenant in {@code dental.admission.queue.delay}.
+ */
+@Component
+@Order(0)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class TenantAdmissionWebFilter implements WebFilter {
+
+    private static final byte[] BODY =
+            "{\"error\":\"Too many concurrent requests for this clinic, please retry\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AdmissionProperties properties;
+    private final TenantPlans tenantPlans;
+    private final TenantTagPolicy tenantTagPolicy;
+    private final MeterRegistry meterRegistry;
+    private final FairScheduler scheduler;
+
+    public TenantAdmissionWebFilter(AdmissionProperties properties,
+                                    TenantPlans tenantPlans,
+                                    TenantTagPolicy tenantTagPolicy,
+                                    MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.tenantPlans = tenantPlans;
+        this.tenantTagPolicy = tenantTagPolicy;
+        this.meterRegistry = meterRegistry;
+        this.scheduler = new FairScheduler(properties.getMaxConcurrent());
+        Gauge.builder("dental.admission.in.flight", scheduler, FairScheduler::inFlight)
+                .description("Tenant requests currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("dental.admission.queued", scheduler, FairScheduler::queued)
+                .description("Tenant requests waiting for an admission slot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        UUID tenantId = exchange.getAttribute(TenantContext.TENANT_ID_ATTRIBUTE);
+        if (!properties.isEnabled() || tenantId == null || !exchange.getRequest().getPath().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        String plan = tenantPlans.planOf(tenantId);
+        String tenantTag = tenantTagPolicy.tagFor(tenantId);
+        long enqueued = System.nanoTime();
+        return scheduler.acquire(tenantId, tenantPlans.tierOf(tenantId))
+                .timeout(properties.getMaxQueueWait(), Mono.error(() -> new AdmissionRejectedException(
+                        AdmissionRejectedException.QUEUE_TIMEOUT, scheduler.retryAfterSeconds(tenantId))))
+                .flatMap(permit -> {
+                    queueDelay(tenantTag, plan).record(Duration.ofNanos(System.nanoTime() - enqueued));
+                    return chain.filter(exchange).doFinally(signal -> permit.release());
+                })
+                .onErrorResume(AdmissionRejectedException.class, e -> reject(exchange, tenantTag, plan, e));
+    }
+
+    private Timer queueDelay(String tenantTag, String plan) {
+        return Timer.builder("dental.admission.queue.delay")
+                .description("Time a tenant request waited for an admission slot")
+                .tag(TenantTagPolicy.TAG, tenantTag)
+                .tag("plan", plan)
+                .register(meterRegistry);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String tenantTag, String plan, AdmissionRejectedException e) {
+        Counter.builder("dental.admission.rejected")
+                .description("Tenant requests answered 429 by admission control")
+                .tag(TenantTagPolicy.TAG, tenantTag)
+                .tag("plan", plan)
+                .tag("reason", e.getReason())
+                .register(meterRegistry)
+                .increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = response.bufferFactory().wrap(BODY);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
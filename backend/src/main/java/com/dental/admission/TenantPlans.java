@@ -0,0 +1,52 @@
+package com.dental.admission;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory copy of every tenant's plan, reloaded periodically so admission decisions
+ * never wait on the database. Tenants not yet loaded get the default plan.
+ */
+@Component
+public class TenantPlans {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantPlans.class);
+
+    private final DatabaseClient databaseClient;
+    private final AdmissionProperties properties;
+    private volatile Map<UUID, String> plans = Map.of();
+
+    public TenantPlans(DatabaseClient databaseClient, AdmissionProperties properties) {
+        this.databaseClient = databaseClient;
+        this.properties = properties;
+    }
+
+    public AdmissionProperties.Tier tierOf(UUID tenantId) {
+        return properties.tier(plans.get(tenantId));
+    }
+
+    public String planOf(UUID tenantId) {
+        String plan = plans.get(tenantId);
+        return plan != null ? plan.toLowerCase(Locale.ROOT) : properties.getDefaultPlan();
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dental.admission.plan-refresh-interval:PT5M}")
+    public Mono<Void> refresh() {
+        return databaseClient.sql("SELECT id, plan FROM tenants WHERE plan IS NOT NULL")
+                .map(row -> Map.entry(row.get("id", UUID.class), row.get("plan", String.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .doOnNext(loaded -> plans = Map.copyOf(loaded))
+                .doOnError(e -> log.warn("Could not reload tenant plans, keeping {} cached: {}", plans.size(), e.toString()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,25 @@
+package com.dental.cache;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Reactor Context marker for reads that must skip {@link ResponseCache} and
+ * {@link SingleFlight} and always run their loader, so the query and mapping path is
+ * exercised rather than the cache hit. Set for the startup warm-up's replayed requests.
+ */
+public final class CacheBypass {
+
+    private static final String CONTEXT_KEY = CacheBypass.class.getName();
+
+    private CacheBypass() {
+    }
+
+    public static Context enable() {
+        return Context.of(CONTEXT_KEY, Boolean.TRUE);
+    }
+
+    public static boolean isEnabled(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, Boolean.FALSE);
+    }
+}
@@ -0,0 +1,85 @@
+package com.dental.cache;
+
+import com.dental.config.SerializationFormats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET backed by {@link TenantDataVersions}: the ETag is derived from the
+ * committed versions of the entities a response is built from, so an If-None-Match hit
+ * answers 304 before any data query runs. The tag also names the representation the
+ * Accept header selects (JSON, NDJSON, CBOR or Smile), and responses vary by Accept, so a
+ * body cached in one format never validates a request for another. The tag is weak
+ * because the body may be sent gzip-encoded or not.
+ */
+@Component
+public class ConditionalGet {
+
+    private final TenantDataVersions versions;
+    private final SerializationFormats formats;
+
+    public ConditionalGet(TenantDataVersions versions, SerializationFormats formats) {
+        this.versions = versions;
+        this.formats = formats;
+    }
+
+    /**
+     * @param requestHeaders used for If-None-Match and Accept
+     */
+    public <T> Mono<ResponseEntity<T>> respond(UUID tenantId, HttpHeaders requestHeaders, List<String> entities,
+                                               Supplier<Mono<ResponseEntity<T>>> loader) {
+        String ifNoneMatch = String.join(",", requestHeaders.getOrEmpty(HttpHeaders.IF_NONE_MATCH));
+        String representation = formats.representation(requestHeaders.getAccept());
+        return Flux.fromIterable(entities)
+                .concatMap(entity -> versions.current(tenantId, entity).map(version -> entity + "." + version))
+                .collectList()
+                .flatMap(parts -> {
+                    String etag = "W/\"" + Integer.toHexString(tenantId.hashCode()) + "-" + String.join("-", parts)
+                            + "-" + representation + "\"";
+                    if (matches(ifNoneMatch, etag)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(etag)
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .<T>build());
+                    }
+                    return loader.get().map(response -> withETag(response, etag));
+                });
+    }
+
+    private <T> ResponseEntity<T> withETag(ResponseEntity<T> response, String etag) {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(headers)
+                .eTag(etag)
+                .body(response.getBody());
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,262 @@
+package com.dental.cache;
+
+import com.dental.config.SerializationFormats;
+import com.dental.config.SerializationFormats.Format;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of fully serialized responses (body plus a gzip copy) for hot tenant reads.
+ * Entries are keyed by (tenantId, route, params, wire format) and stamped with the tenant's
+ * persisted {@link TenantDataVersions} version at load time; an entry is only served while
+ * that version is current, so a write on any node invalidates it within the versions'
+ * max-staleness, and while it is younger than {@code maxAge}. The cache is LRU, bounded by
+ * total bytes rather than entry count, since one tenant's calendar can be far larger
+ * than another's dentist list.
+ * <p>
+ * Bodies live in pooled Netty buffers. A hit hands the response a retained duplicate of
+ * the cached buffer, which Reactor Netty writes to the socket and releases, so serving
+ * from the cache neither copies nor allocates the body. The cache's own reference is
+ * released when the entry is evicted, expires or is replaced.
+ * <p>
+ * Requests running with {@link CacheBypass} are serialized and served without touching
+ * the cache.
+ */
+@Component
+public class ResponseCache {
+
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final SerializationFormats formats;
+    private final TenantDataVersions versions;
+    private final MeterRegistry meterRegistry;
+    private final long maxBytes;
+    private final Duration maxAge;
+    private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(allocator);
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, RouteCounters> routeCounters = new ConcurrentHashMap<>();
+    private final Counter evictions;
+    private long bytes;
+
+    public ResponseCache(SerializationFormats formats,
+                         TenantDataVersions versions,
+                         MeterRegistry meterRegistry,
+                         @Value("${dental.response-cache.max-bytes:67108864}") long maxBytes,
+                         @Value("${dental.response-cache.max-age:5m}") Duration maxAge) {
+        this.formats = formats;
+        this.versions = versions;
+        this.meterRegistry = meterRegistry;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+        this.evictions = Counter.builder("dental.response.cache.evictions")
+                .description("Serialized responses evicted to stay within the byte budget")
+                .register(meterRegistry);
+        Gauge.builder("dental.response.cache.bytes", this, ResponseCache::size)
+                .description("Bytes held by the serialized response cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Serves the cached body for (tenantId, route, params) in the format the request
+     * accepts if still current, otherwise runs the loader, serializes its value once and
+     * caches it.
+     *
+     * @param requestHeaders used for Accept (JSON, CBOR or Smile) and Accept-Encoding
+     */
+    public Mono<ResponseEntity<DataBuffer>> respond(UUID tenantId, String route, Object params,
+                                                    HttpHeaders requestHeaders, Supplier<Mono<?>> loader) {
+        String acceptEncoding = requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        Format format = formats.select(requestHeaders.getAccept());
+        RouteCounters counters = routeCounters.computeIfAbsent(route, r -> new RouteCounters(r, meterRegistry));
+        return Mono.deferContextual(context -> {
+            if (CacheBypass.isEnabled(context)) {
+                return loader.get().map(value -> uncached(serialize(value, format, 0), gzip));
+            }
+            return respondCached(tenantId, route, params, format, gzip, counters, loader);
+        });
+    }
+
+    private Mono<ResponseEntity<DataBuffer>> respondCached(UUID tenantId, String route, Object params, Format format,
+                                                           boolean gzip, RouteCounters counters, Supplier<Mono<?>> loader) {
+        return versions.current(tenantId).flatMap(version -> {
+            Key key = new Key(tenantId, route, params, format);
+            ResponseEntity<DataBuffer> cached = get(key, version, gzip);
+            if (cached != null) {
+                counters.hits.increment();
+                return Mono.just(cached);
+            }
+            counters.misses.increment();
+            return loader.get()
+                    .map(value -> {
+                        Entry entry = serialize(value, format, version);
+                        ResponseEntity<DataBuffer> response = toResponse(entry, gzip);
+                        if (!put(key, entry)) {
+                            entry.release();
+                        }
+                        return response;
+                    });
+        });
+    }
+
+    private ResponseEntity<DataBuffer> uncached(Entry entry, boolean gzip) {
+        ResponseEntity<DataBuffer> response = toResponse(entry, gzip);
+        entry.release();
+        return response;
+    }
+
+    /**
+     * Must be called while the entry is known to be live (under the cache lock, or before
+     * it is published): the response gets its own reference to the buffer.
+     */
+    private ResponseEntity<DataBuffer> toResponse(Entry entry, boolean gzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(entry.format.getMediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip && entry.gzip != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(bufferFactory.wrap(entry.gzip.retainedDuplicate()));
+        }
+        return response.body(bufferFactory.wrap(entry.body.retainedDuplicate()));
+    }
+
+    private Entry serialize(Object value, Format format, long version) {
+        ByteBuf body = allocator.buffer();
+        ByteBuf gzip = null;
+        try {
+            try (ByteBufOutputStream out = new ByteBufOutputStream(body)) {
+                formats.mapper(format).writeValue((OutputStream) out, value);
+            }
+            if (body.readableBytes() >= GZIP_MIN_BYTES) {
+                gzip = allocator.buffer(body.readableBytes() / 4);
+                try (GZIPOutputStream zip = new GZIPOutputStream(new ByteBufOutputStream(gzip))) {
+                    body.getBytes(body.readerIndex(), zip, body.readableBytes());
+                }
+            }
+            return new Entry(format, version, System.nanoTime(), body, gzip);
+        } catch (IOException e) {
+            body.release();
+            if (gzip != null) {
+                gzip.release();
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized ResponseEntity<DataBuffer> get(Key key, long version, boolean gzip) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.version != version || System.nanoTime() - entry.createdNanos > maxAge.toNanos()) {
+            entries.remove(key);
+            bytes -= entry.size();
+            entry.release();
+            return null;
+        }
+        return toResponse(entry, gzip);
+    }
+
+    /**
+     * @return false when the entry was not cached and still belongs to the caller
+     */
+    private synchronized boolean put(Key key, Entry entry) {
+        if (entry.size() > maxBytes / 4) {
+            return false;
+        }
+        Entry previous = entries.get(key);
+        if (previous != null && previous.version > entry.version) {
+            return false;
+        }
+        entries.put(key, entry);
+        bytes += entry.size();
+        if (previous != null) {
+            bytes -= previous.size();
+            previous.release();
+        }
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Key, Entry> evicted = eldest.next();
+            eldest.remove();
+            bytes -= evicted.getValue().size();
+            evicted.getValue().release();
+            evictions.increment();
+        }
+        return true;
+    }
+
+    private synchronized long size() {
+        return bytes;
+    }
+
+    @PreDestroy
+    synchronized void clear() {
+        entries.values().forEach(Entry::release);
+        entries.clear();
+        bytes = 0;
+    }
+
+    private record Key(UUID tenantId, String route, Object params, Format format) {
+        Key {
+            Objects.requireNonNull(route, "route");
+        }
+    }
+
+    private record Entry(Format format, long version, long createdNanos, ByteBuf body, ByteBuf gzip) {
+        long size() {
+            return body.readableBytes() + (gzip != null ? gzip.readableBytes() : 0) + 64L;
+        }
+
+        void release() {
+            body.release();
+            if (gzip != null) {
+                gzip.release();
+            }
+        }
+    }
+
+    private static final class RouteCounters {
+        private final Counter hits;
+        private final Counter misses;
+
+        RouteCounters(String route, MeterRegistry registry) {
+            this.hits = counter(route, "hit", registry);
+            this.misses = counter(route, "miss", registry);
+        }
+
+        private static Counter counter(String route, String result, MeterRegistry registry) {
+            return Counter.builder("dental.response.cache.requests")
+                    .description("Reads answered from the serialized response cache")
+                    .tag("route", route)
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.dental.cache;
+
+import com.dental.config.DeadlineProperties;
+import com.dental.db.DbBudgetExceededException;
+import com.dental.db.DeadlineExceededException;
+import com.dental.db.RequestDbStats;
+import com.dental.db.RequestDeadline;
+import com.dental.security.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for hot tenant-wide reads.
+ * Concurrent callers asking for the same (tenantId, query, params) share a single in-flight
+ * Mono instead of each running the query. An optional micro-TTL keeps the completed result
+ * shared for a short time afterwards. Errors are never shared beyond the in-flight window.
+ * Budgets are checked per caller before joining; the load itself runs detached from any caller.
+ * Callers running with {@link CacheBypass} run their own load and share nothing.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<Key, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Duration maxLoadTime;
+
+    public SingleFlight(MeterRegistry meterRegistry, DeadlineProperties deadlineProperties) {
+        this.meterRegistry = meterRegistry;
+        this.maxLoadTime = deadlineProperties.getMaxTimeout();
+    }
+
+    public <T> Mono<T> execute(UUID tenantId, String query, Object params, Supplier<Mono<T>> loader) {
+        return execute(tenantId, query, params, Duration.ZERO, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(UUID tenantId, String query, Object params, Duration ttl, Supplier<Mono<T>> loader) {
+        return Mono.deferContextual(context -> {
+            // Budgets are per caller: one over its enforced budget is refused, not its joiners
+            RequestDbStats requestStats = RequestDbStats.from(context);
+            DbBudgetExceededException overBudget = requestStats != null ? requestStats.enforcedBudgetError() : null;
+            if (overBudget != null) {
+                return Mono.error(overBudget);
+            }
+            if (CacheBypass.isEnabled(context)) {
+                return Mono.defer(loader);
+            }
+            Key key = new Key(tenantId, query, params);
+            AtomicReference<Mono<?>> created = new AtomicReference<>();
+            Mono<?> shared = inFlight.computeIfAbsent(key, k -> {
+                Mono<T> mono = share(k, ttl, loader);
+                created.set(mono);
+                return mono;
+            });
+            if (created.get() != null) {
+                // The load runs to completion for the joiners even if the caller that started it cancels
+                created.get().subscribe(value -> { }, error -> { });
+            }
+            statsFor(query).record(created.get() == null);
+            // Each caller waits only as long as its own deadline; the load goes on for the others
+            RequestDeadline deadline = RequestDeadline.from(context);
+            if (deadline == null) {
+                return (Mono<T>) shared;
+            }
+            return ((Mono<T>) shared).timeout(deadline.remaining(), Mono.error(() -> new DeadlineExceededException(
+                    "Request deadline of " + deadline.getTimeout().toMillis() + "ms exceeded")));
+        });
+    }
+
+    /**
+     * The shared load runs in a neutral context holding only the tenant: it belongs to no
+     * single caller, so it must not be charged to, or bounded by, the first caller's
+     * RequestDbStats, RequestDeadline or DbBudget. It is bounded by the longest deadline a
+     * request may ask for instead.
+     */
+    private <T> Mono<T> share(Key key, Duration ttl, Supplier<Mono<T>> loader) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Mono<T> mono = Mono.defer(loader)
+                .timeout(maxLoadTime)
+                .contextWrite(ignored -> key.tenantId() != null ? TenantContext.withTenantId(key.tenantId()) : Context.empty())
+                .doOnError(e -> inFlight.remove(key, self.get()))
+                .doOnSuccess(value -> release(key, self.get(), ttl))
+                .cache(value -> ttl, error -> Duration.ZERO, () -> ttl);
+        self.set(mono);
+        return mono;
+    }
+
+    private void release(Key key, Mono<?> mono, Duration ttl) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            inFlight.remove(key, mono);
+        } else {
+            Schedulers.parallel().schedule(() -> inFlight.remove(key, mono), ttl.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private QueryStats statsFor(String query) {
+        return stats.computeIfAbsent(query, q -> new QueryStats(q, meterRegistry));
+    }
+
+    private record Key(UUID tenantId, String query, Object params) {
+        Key {
+            Objects.requireNonNull(query, "query");
+        }
+    }
+
+    private static final class QueryStats {
+        private final Counter hitCounter;
+        private final Counter missCounter;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder total = new LongAdder();
+
+        QueryStats(String query, MeterRegistry registry) {
+            this.hitCounter = Counter.builder("dental.singleflight.requests")
+                    .description("Reads served by the single-flight coalescer")
+                    .tag("query", query)
+                    .tag("result", "hit")
+                    .register(registry);
+            this.missCounter = Counter.builder("dental.singleflight.requests")
+                    .description("Reads served by the single-flight coalescer")
+                    .tag("query", query)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("dental.singleflight.hit.ratio", this, QueryStats::hitRatio)
+                    .description("Share of reads that joined an in-flight or micro-cached result")
+                    .tag("query", query)
+                    .register(registry);
+        }
+
+        void record(boolean hit) {
+            total.increment();
+            if (hit) {
+                hits.increment();
+                hitCounter.increment();
+            } else {
+                missCounter.increment();
+            }
+        }
+
+        double hitRatio() {
+            long requests = total.sum();
+            return requests == 0 ? 0.0 : (double) hits.sum() / requests;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.dental.cache;
+
+import com.dental.db.RecentWrites;
+import com.dental.security.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monotonic data versions, per tenant and per entity (patients, staff, appointments, users).
+ * Service write paths bump the entity version in tenant_entity_versions inside their own
+ * transaction, so reads can compare versions (ETags, cached responses) without touching
+ * the data tables.
+ * <p>
+ * Versions are committed in the database and shared by every node: each node keeps a
+ * per-tenant snapshot of them (one primary-key range read) for at most
+ * {@code dental.versions.max-staleness}, so a write on another node is seen within that
+ * bound. A write committed on this node drops the tenant's snapshot right away. Each
+ * committed write also keeps the tenant's replica reads on the primary for a while
+ * ({@link RecentWrites}).
+ */
+@Component
+public class TenantDataVersions {
+
+    public static final String PATIENTS = "patients";
+    public static final String STAFF = "staff";
+    public static final String APPOINTMENTS = "appointments";
+    public static final String USERS = "users";
+
+    private static final String VERSIONS_SQL =
+            "SELECT entity, version FROM tenant_entity_versions WHERE tenant_id = :tenantId";
+
+    private static final String BUMP_SQL =
+            "INSERT INTO tenant_entity_versions (tenant_id, entity, version) " +
+            "VALUES (:tenantId, :entity, 1) " +
+            "ON CONFLICT (tenant_id, entity) DO UPDATE SET version = tenant_entity_versions.version + 1, updated_at = NOW()";
+
+    private final DatabaseClient databaseClient;
+    private final RecentWrites recentWrites;
+    private final Duration maxStaleness;
+    private final Map<UUID, Mono<Map<String, Long>>> snapshots = new ConcurrentHashMap<>();
+
+    public TenantDataVersions(DatabaseClient databaseClient, RecentWrites recentWrites,
+                              @Value("${dental.versions.max-staleness:1s}") Duration maxStaleness) {
+        this.databaseClient = databaseClient;
+        this.recentWrites = recentWrites;
+        this.maxStaleness = maxStaleness;
+    }
+
+    /**
+     * Tenant-wide version: the sum of the tenant's entity versions, so it grows whenever
+     * any of them does.
+     */
+    public Mono<Long> current(UUID tenantId) {
+        return snapshot(tenantId).map(versions -> versions.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * Committed version of one entity for the tenant, at most max-staleness old.
+     */
+    public Mono<Long> current(UUID tenantId, String entity) {
+        return snapshot(tenantId).map(versions -> versions.getOrDefault(entity, 0L));
+    }
+
+    /**
+     * Increments the entity version as part of the current reactive transaction and makes
+     * it visible to this node's readers after commit (right away when there is no
+     * transaction). Publishing before commit would let a concurrent reader tag the old
+     * rows with the new version.
+     */
+    public Mono<Void> bumpAfterCommit(UUID tenantId, String entity) {
+        return databaseClient.sql(BUMP_SQL)
+                .bind("tenantId", tenantId)
+                .bind("entity", entity)
+                .then()
+                .then(afterCommit(() -> {
+                    snapshots.remove(tenantId);
+                    recentWrites.markWrite(tenantId);
+                }));
+    }
+
+    /**
+     * Concurrent readers share one load; a failed load is not kept.
+     */
+    private Mono<Map<String, Long>> snapshot(UUID tenantId) {
+        return snapshots.computeIfAbsent(tenantId, id -> load(id)
+                .cache(loaded -> maxStaleness, error -> Duration.ZERO, () -> maxStaleness));
+    }
+
+    private Mono<Map<String, Long>> load(UUID tenantId) {
+        return databaseClient.sql(VERSIONS_SQL)
+                .bind("tenantId", tenantId)
+                .map(row -> Map.entry(row.get("entity", String.class), row.get("version", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                // Shared by every reader of the tenant, so not charged to whichever request loads it
+                .contextWrite(ignored -> TenantContext.withTenantId(tenantId));
+    }
+
+    private Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(sync -> {
+                    if (!sync.isSynchronizationActive()) {
+                        return Mono.<Void>fromRunnable(action);
+                    }
+                    sync.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(action);
+                        }
+                    });
+                    return Mono.<Void>empty();
+                })
+                .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(action));
+    }
+}
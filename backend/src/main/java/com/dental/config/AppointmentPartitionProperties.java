@@ -0,0 +1,95 @@
+package com.dental.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Monthly partitions of the appointments table. The hot window is the current month,
+ * {@code monthsAhead} future months kept pre-created, and {@code retentionMonths} past
+ * months; older months are moved to appointments_archive, or only detached when
+ * {@code archive} is false. There is no default partition, so only appointments within
+ * the window can be stored.
+ */
+@ConfigurationProperties(prefix = "dental.appointments.partitions")
+public class AppointmentPartitionProperties {
+
+    private boolean enabled = true;
+    private int monthsAhead = 12;
+    private int retentionMonths = 24;
+    private boolean archive = true;
+    private Duration interval = Duration.ofHours(6);
+
+    /**
+     * Start of the oldest month still in the appointments table; queries without their own
+     * date range are bounded by it so Postgres can prune partitions.
+     */
+    public LocalDateTime hotFrom() {
+        return firstMonth().atStartOfDay();
+    }
+
+    /**
+     * First day of the oldest month kept in the hot table.
+     */
+    public LocalDate firstMonth() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths);
+    }
+
+    /**
+     * End of the last month that is sure to have a partition: the job may not have created
+     * the newest month yet when the calendar month has just turned. appointments has no
+     * default partition, so appointments outside [{@link #hotFrom()}, this) are refused.
+     */
+    public LocalDateTime bookableUntil() {
+        return LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead).atStartOfDay();
+    }
+
+    /**
+     * First day of the month after the last pre-created one.
+     */
+    public LocalDate horizon() {
+        return LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead + 1L);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMonthsAhead() {
+        return monthsAhead;
+    }
+
+    public void setMonthsAhead(int monthsAhead) {
+        this.monthsAhead = monthsAhead;
+    }
+
+    public int getRetentionMonths() {
+        return retentionMonths;
+    }
+
+    public void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+
+    public boolean isArchive() {
+        return archive;
+    }
+
+    public void setArchive(boolean archive) {
+        this.archive = archive;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+}
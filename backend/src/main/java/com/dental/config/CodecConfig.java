@@ -0,0 +1,47 @@
+package com.dental.config;
+
+import com.dental.web.BatchingJackson2JsonEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+
+import java.time.Duration;
+
+/**
+ * HTTP codecs, applied after Spring Boot's own Jackson customizer:
+ * <ul>
+ *   <li>binary alternatives to JSON negotiated by Accept: CBOR ({@code application/cbor})
+ *       and Smile ({@code application/x-jackson-smile}); JSON stays first and remains the
+ *       default;</li>
+ *   <li>a JSON encoder that writes {@code application/x-ndjson} list bodies, and JSON
+ *       arrays requested as {@code application/json;stream=true}, in batches of rows
+ *       rather than a buffer and a flush per row; plain JSON arrays are encoded as usual.</li>
+ * </ul>
+ */
+@Configuration
+public class CodecConfig {
+
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public CodecCustomizer dentalCodecCustomizer(SerializationFormats formats,
+                                                 @Value("${dental.streaming.batch-size:256}") int batchSize,
+                                                 @Value("${dental.streaming.max-batch-delay:50ms}") Duration maxBatchDelay) {
+        return configurer -> {
+            configurer.defaultCodecs().jackson2JsonEncoder(new BatchingJackson2JsonEncoder(
+                    formats.mapper(SerializationFormats.Format.JSON), batchSize, maxBatchDelay));
+            configurer.defaultCodecs().jackson2SmileEncoder(
+                    new Jackson2SmileEncoder(formats.mapper(SerializationFormats.Format.SMILE)));
+            configurer.defaultCodecs().jackson2SmileDecoder(
+                    new Jackson2SmileDecoder(formats.mapper(SerializationFormats.Format.SMILE)));
+            configurer.customCodecs().register(new Jackson2CborEncoder(formats.mapper(SerializationFormats.Format.CBOR)));
+            configurer.customCodecs().register(new Jackson2CborDecoder(formats.mapper(SerializationFormats.Format.CBOR)));
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.dental.config;
+
+import com.dental.db.DbBudget;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per-request database budget. Requests going over any limit are logged with route and
+ * tenant; with {@code enforce} they are also rejected before running more statements, and
+ * cut off at the first row over {@code maxRows}.
+ */
+@ConfigurationProperties(prefix = "dental.db.budget")
+public class DbBudgetProperties {
+
+    private int maxStatements = 50;
+    private long maxRows = 5000;
+    private Duration maxDbTime = Duration.ofSeconds(1);
+    private boolean enforce = false;
+
+    public DbBudget toBudget() {
+        return new DbBudget(maxStatements, maxRows, maxDbTime, enforce);
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    public void setMaxRows(long maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    public Duration getMaxDbTime() {
+        return maxDbTime;
+    }
+
+    public void setMaxDbTime(Duration maxDbTime) {
+        this.maxDbTime = maxDbTime;
+    }
+
+    public boolean isEnforce() {
+        return enforce;
+    }
+
+    public void setEnforce(boolean enforce) {
+        this.enforce = enforce;
+    }
+}
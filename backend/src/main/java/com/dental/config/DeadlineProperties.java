@@ -0,0 +1,54 @@
+package com.dental.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * End-to-end request deadlines. A client may ask for a shorter one with the
+ * {@code X-Request-Timeout} header (milliseconds), never for more than {@code maxTimeout};
+ * otherwise the first matching route pattern's timeout applies, or {@code defaultTimeout}.
+ */
+@ConfigurationProperties(prefix = "dental.deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+    private Duration maxTimeout = Duration.ofSeconds(30);
+    /** Path pattern (e.g. /api/dashboard/**) to timeout, checked in declaration order. */
+    private Map<String, Duration> routes = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration getMaxTimeout() {
+        return maxTimeout;
+    }
+
+    public void setMaxTimeout(Duration maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+
+    public Map<String, Duration> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Duration> routes) {
+        this.routes = routes;
+    }
+}
@@ -0,0 +1,15 @@
+package com.dental.config;
+
+import com.dental.logging.LogContext;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the Reactor Context to MDC bridge used by the structured log output.
+ */
+@Configuration
+public class LoggingConfig {
+
+    public LoggingConfig() {
+        LogContext.registerMdcAccessors();
+    }
+}
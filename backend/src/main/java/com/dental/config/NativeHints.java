@@ -0,0 +1,43 @@
+package com.dental.config;
+
+import com.dental.logging.RateLimitingTurboFilter;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the GraalVM native image (-Pnative). jjwt loads its implementation
+ * by class name and logback instantiates the classes named in logback-spring.xml; neither
+ * is visible to Spring AOT processing.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] REFLECTIVE_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+            "net.logstash.logback.encoder.LogstashEncoder",
+            "net.logstash.logback.fieldnames.LogstashFieldNames"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : REFLECTIVE_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.reflection().registerType(RateLimitingTurboFilter.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+    }
+}
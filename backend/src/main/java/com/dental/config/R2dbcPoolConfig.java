@@ -0,0 +1,150 @@
+package com.dental.config;
+
+import com.dental.db.ConnectionRequestRegistry;
+import com.dental.db.MeteredConnectionFactory;
+import com.dental.db.QueryMetricsListener;
+import com.dental.db.RecentWrites;
+import com.dental.db.ReplicaRoutingConnectionFactory;
+import com.dental.sharding.ShardMap;
+import com.dental.sharding.ShardRoutingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Explicit r2dbc-pool wiring (replaces Spring Boot's implicit pool) so sizing, timeouts,
+ * validation and the Postgres prepared-statement cache are all under our control. With
+ * {@code dental.r2dbc.replica.enabled} a second pool, configured the same way, serves
+ * replica reads behind {@link ReplicaRoutingConnectionFactory}, and with
+ * {@code dental.sharding.enabled} each extra shard gets its own pool behind
+ * {@link ShardRoutingConnectionFactory}.
+ */
+@Configuration
+@EnableConfigurationProperties({R2dbcPoolProperties.class, DbBudgetProperties.class, DeadlineProperties.class,
+        ReplicaProperties.class, ShardingProperties.class, AppointmentPartitionProperties.class})
+public class R2dbcPoolConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(R2dbcPoolConfig.class);
+
+    private static final Option<Integer> PREPARED_STATEMENT_CACHE_QUERIES = Option.valueOf("preparedStatementCacheQueries");
+
+    @Bean(destroyMethod = "dispose")
+    public ShardRoutingConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties,
+                                                           R2dbcPoolProperties poolProperties,
+                                                           ReplicaProperties replicaProperties,
+                                                           ShardingProperties shardingProperties,
+                                                           RecentWrites recentWrites,
+                                                           ShardMap shardMap,
+                                                           ConnectionRequestRegistry connectionRequestRegistry,
+                                                           MeterRegistry meterRegistry,
+                                                           @Value("${dental.db.slow-query-threshold:200ms}") Duration slowQueryThreshold) {
+        QueryMetricsListener listener = new QueryMetricsListener(meterRegistry, connectionRequestRegistry, slowQueryThreshold);
+        MeteredConnectionFactory primary = pool("dental",
+                driverOptions(r2dbcProperties.getUrl(), r2dbcProperties.getUsername(), r2dbcProperties.getPassword(),
+                        r2dbcProperties, poolProperties),
+                listener, poolProperties, connectionRequestRegistry, meterRegistry);
+
+        MeteredConnectionFactory replica = null;
+        if (replicaProperties.isEnabled() && replicaProperties.getUrl() != null) {
+            String username = replicaProperties.getUsername() != null ? replicaProperties.getUsername() : r2dbcProperties.getUsername();
+            String password = replicaProperties.getPassword() != null ? replicaProperties.getPassword() : r2dbcProperties.getPassword();
+            replica = pool("dental-replica",
+                    driverOptions(replicaProperties.getUrl(), username, password, r2dbcProperties, poolProperties),
+                    listener, poolProperties, connectionRequestRegistry, meterRegistry);
+            bindPoolMetrics(replica, "dental-replica", meterRegistry);
+            log.info("R2DBC read replica: {} (sticky window {}, max lag {})", replicaProperties.getUrl(),
+                    replicaProperties.getStickyWindow(), replicaProperties.getMaxLag());
+        }
+
+        ReplicaRoutingConnectionFactory main =
+                new ReplicaRoutingConnectionFactory(primary, replica, recentWrites, replicaProperties, meterRegistry);
+
+        Map<String, ConnectionFactory> shards = new LinkedHashMap<>();
+        if (shardingProperties.isEnabled()) {
+            shardingProperties.getShards().forEach((name, shard) -> {
+                if (ShardingProperties.MAIN.equals(name) || shard.getUrl() == null) {
+                    return;
+                }
+                String username = shard.getUsername() != null ? shard.getUsername() : r2dbcProperties.getUsername();
+                String password = shard.getPassword() != null ? shard.getPassword() : r2dbcProperties.getPassword();
+                MeteredConnectionFactory pool = pool("dental-" + name,
+                        driverOptions(shard.getUrl(), username, password, r2dbcProperties, poolProperties),
+                        listener, poolProperties, connectionRequestRegistry, meterRegistry);
+                bindPoolMetrics(pool, "dental-" + name, meterRegistry);
+                shards.put(name, pool);
+            });
+            log.info("Tenant sharding: shards {} besides main", shards.keySet());
+        }
+        return new ShardRoutingConnectionFactory(main, shards, shardMap);
+    }
+
+    // Spring Boot only binds pool gauges for ConnectionFactory beans; replica and shard pools are not
+    private void bindPoolMetrics(MeteredConnectionFactory factory, String name, MeterRegistry meterRegistry) {
+        if (factory.unwrap() instanceof ConnectionPool pool) {
+            new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(meterRegistry);
+        }
+    }
+
+    private MeteredConnectionFactory pool(String name, ConnectionFactoryOptions options, QueryMetricsListener listener,
+                                          R2dbcPoolProperties poolProperties,
+                                          ConnectionRequestRegistry connectionRequestRegistry,
+                                          MeterRegistry meterRegistry) {
+        // Proxy sits under the pool so every physical connection reports its statements
+        ConnectionFactory postgres = ProxyConnectionFactory.builder(ConnectionFactories.get(options))
+                .listener(listener)
+                .build();
+
+        int maxSize = poolProperties.resolveMaxSize();
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration.builder(postgres)
+                .name(name)
+                .initialSize(poolProperties.getMinSize())
+                .minIdle(poolProperties.getMinSize())
+                .maxSize(maxSize)
+                .maxAcquireTime(poolProperties.getMaxAcquireTime())
+                .maxCreateConnectionTime(poolProperties.getMaxCreateConnectionTime())
+                .maxIdleTime(poolProperties.getMaxIdleTime())
+                .maxLifeTime(poolProperties.getMaxLifeTime())
+                .validationQuery(poolProperties.getValidationQuery())
+                .acquireRetry(poolProperties.getAcquireRetry())
+                .build();
+
+        log.info("R2DBC pool '{}': minSize={}, maxSize={} ({} tenants x {} connections), maxAcquireTime={}",
+                name, poolProperties.getMinSize(), maxSize, poolProperties.getExpectedActiveTenants(),
+                poolProperties.getConnectionsPerTenant(), poolProperties.getMaxAcquireTime());
+
+        return new MeteredConnectionFactory(new ConnectionPool(configuration), name,
+                poolProperties.getMaxAcquireTime(), connectionRequestRegistry, meterRegistry);
+    }
+
+    private ConnectionFactoryOptions driverOptions(String url, String username, String password,
+                                                   R2dbcProperties r2dbcProperties, R2dbcPoolProperties poolProperties) {
+        ConnectionFactoryOptions.Builder builder = ConnectionFactoryOptions.parse(url).mutate();
+        if (username != null) {
+            builder.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null) {
+            builder.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        r2dbcProperties.getProperties().forEach((key, value) -> builder.option(Option.valueOf(key), value));
+        builder.option(PREPARED_STATEMENT_CACHE_QUERIES, poolProperties.getPreparedStatementCacheQueries());
+        return builder.build();
+    }
+}
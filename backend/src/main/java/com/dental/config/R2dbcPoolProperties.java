@@ -0,0 +1,119 @@
+package com.dental.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings. The pool is sized from the expected tenant load
+ * (concurrently active tenants x connections each), clamped to [minSize, maxSize],
+ * so capacity follows the deployment's tenant mix instead of a fixed guess.
+ */
+@ConfigurationProperties(prefix = "dental.r2dbc.pool")
+public class R2dbcPoolProperties {
+
+    private int expectedActiveTenants = 10;
+    private int connectionsPerTenant = 2;
+    private int minSize = 5;
+    private int maxSize = 40;
+    private Duration maxAcquireTime = Duration.ofSeconds(2);
+    private Duration maxCreateConnectionTime = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofMinutes(10);
+    private Duration maxLifeTime = Duration.ofMinutes(30);
+    private String validationQuery = "SELECT 1";
+    private int acquireRetry = 0;
+    private int preparedStatementCacheQueries = 256;
+
+    public int resolveMaxSize() {
+        int byTenantLoad = expectedActiveTenants * connectionsPerTenant;
+        return Math.max(minSize, Math.min(maxSize, byTenantLoad));
+    }
+
+    public int getExpectedActiveTenants() {
+        return expectedActiveTenants;
+    }
+
+    public void setExpectedActiveTenants(int expectedActiveTenants) {
+        this.expectedActiveTenants = expectedActiveTenants;
+    }
+
+    public int getConnectionsPerTenant() {
+        return connectionsPerTenant;
+    }
+
+    public void setConnectionsPerTenant(int connectionsPerTenant) {
+        this.connectionsPerTenant = connectionsPerTenant;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getMaxAcquireTime() {
+        return maxAcquireTime;
+    }
+
+    public void setMaxAcquireTime(Duration maxAcquireTime) {
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    public Duration getMaxCreateConnectionTime() {
+        return maxCreateConnectionTime;
+    }
+
+    public void setMaxCreateConnectionTime(Duration maxCreateConnectionTime) {
+        this.maxCreateConnectionTime = maxCreateConnectionTime;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getMaxLifeTime() {
+        return maxLifeTime;
+    }
+
+    public void setMaxLifeTime(Duration maxLifeTime) {
+        this.maxLifeTime = maxLifeTime;
+    }
+
+    public String getValidationQuery() {
+        return validationQuery;
+    }
+
+    public void setValidationQuery(String validationQuery) {
+        this.validationQuery = validationQuery;
+    }
+
+    public int getAcquireRetry() {
+        return acquireRetry;
+    }
+
+    public void setAcquireRetry(int acquireRetry) {
+        this.acquireRetry = acquireRetry;
+    }
+
+    public int getPreparedStatementCacheQueries() {
+        return preparedStatementCacheQueries;
+    }
+
+    public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+        this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+    }
+}
@@ -0,0 +1,82 @@
+package com.dental.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Optional read replica. When enabled, reads marked with
+ * {@link com.dental.db.ReplicaRead} (and the dashboard queries) go to a second pool on
+ * {@code url}, sized like the primary's. Username and password default to the primary's.
+ * A tenant that just wrote keeps reading from the primary for {@code stickyWindow}; a
+ * replica that fails its health check or lags more than {@code maxLag} is skipped until
+ * it recovers. Keep {@code maxLag} well below {@code stickyWindow}: versioned responses
+ * (ETags, response cache) assume a tenant's reads see its writes once the window is over.
+ */
+@ConfigurationProperties(prefix = "dental.r2dbc.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private Duration stickyWindow = Duration.ofSeconds(5);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public Duration getStickyWindow() {
+        return stickyWindow;
+    }
+
+    public void setStickyWindow(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    public Duration getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(Duration healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+}
@@ -0,0 +1,116 @@
+package com.dental.config;
+
+import com.dental.web.BatchingJackson2JsonEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The wire formats the API speaks: JSON (default), CBOR and Smile. The binary mappers are
+ * built from Spring Boot's Jackson builder so dates and other spring.jackson.* settings
+ * serialize exactly as they do in JSON. Deliberately not exposed as ObjectMapper beans,
+ * which would replace Boot's auto-configured JSON mapper.
+ */
+@Component
+public class SerializationFormats {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    /**
+     * Accept types for which list bodies are streamed one JSON document per line.
+     */
+    private static final List<MediaType> JSON_STREAMS =
+            List.of(MediaType.APPLICATION_NDJSON, MediaType.parseMediaType("application/stream+json"));
+
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON),
+        CBOR(MediaType.APPLICATION_CBOR),
+        SMILE(APPLICATION_SMILE);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    public SerializationFormats(ObjectMapper jsonMapper,
+                                Jackson2ObjectMapperBuilder cborBuilder,
+                                Jackson2ObjectMapperBuilder smileBuilder) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborBuilder.factory(new CBORFactory()).build();
+        this.smileMapper = smileBuilder.factory(new SmileFactory()).build();
+    }
+
+    /**
+     * First format the client explicitly accepts, in the order it listed them; JSON when
+     * it accepts anything or nothing we support.
+     */
+    public Format select(List<MediaType> accept) {
+        for (MediaType mediaType : accept) {
+            Format format = match(mediaType);
+            if (format != null) {
+                return format;
+            }
+        }
+        return Format.JSON;
+    }
+
+    /**
+     * Name of the representation a body is sent in for this Accept, picked the same way as
+     * {@link #select}: the format, {@code ndjson} when JSON list elements are streamed one
+     * per line, or {@code json-stream} for a JSON array sent in batches. Tells
+     * representations of one URL apart in ETags.
+     */
+    public String representation(List<MediaType> accept) {
+        for (MediaType mediaType : accept) {
+            if (JSON_STREAMS.stream().anyMatch(mediaType::equalsTypeAndSubtype)) {
+                return "ndjson";
+            }
+            if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)
+                    && "true".equalsIgnoreCase(mediaType.getParameter("stream"))) {
+                return "json-stream";
+            }
+            Format format = match(mediaType);
+            if (format != null) {
+                return format.name().toLowerCase(Locale.ROOT);
+            }
+        }
+        return "json";
+    }
+
+    private static Format match(MediaType mediaType) {
+        if (mediaType.isWildcardType() || mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return Format.JSON;
+        }
+        if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+            return Format.CBOR;
+        }
+        if (mediaType.equalsTypeAndSubtype(APPLICATION_SMILE)) {
+            return Format.SMILE;
+        }
+        return null;
+    }
+
+    public ObjectMapper mapper(Format format) {
+        return switch (format) {
+            case JSON -> jsonMapper;
+            case CBOR -> cborMapper;
+            case SMILE -> smileMapper;
+        };
+    }
+}
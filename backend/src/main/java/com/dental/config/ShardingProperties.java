@@ -0,0 +1,107 @@
+package com.dental.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tenant shards. The {@code main} shard is the spring.r2dbc database (with its optional
+ * replica) and also holds the shard directory (tenant_shards); {@code shards} adds more
+ * databases with the same schema, each with its own pool sized like the main one.
+ * Tenants not in the directory live on {@code main}.
+ */
+@ConfigurationProperties(prefix = "dental.sharding")
+public class ShardingProperties {
+
+    public static final String MAIN = "main";
+
+    private boolean enabled = false;
+    private Duration mapRefreshInterval = Duration.ofSeconds(10);
+    /**
+     * How long a move waits after each directory change before relying on it; must cover
+     * {@code mapRefreshInterval} plus the longest write request.
+     */
+    private Duration moveDrainTime = Duration.ofSeconds(45);
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    /**
+     * Every shard name, {@code main} first; only {@code main} while sharding is disabled.
+     */
+    public List<String> shardNames() {
+        List<String> names = new ArrayList<>();
+        names.add(MAIN);
+        if (enabled) {
+            shards.keySet().stream().filter(name -> !MAIN.equals(name)).forEach(names::add);
+        }
+        return names;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMapRefreshInterval() {
+        return mapRefreshInterval;
+    }
+
+    public void setMapRefreshInterval(Duration mapRefreshInterval) {
+        this.mapRefreshInterval = mapRefreshInterval;
+    }
+
+    public Duration getMoveDrainTime() {
+        return moveDrainTime;
+    }
+
+    public void setMoveDrainTime(Duration moveDrainTime) {
+        this.moveDrainTime = moveDrainTime;
+    }
+
+    public Map<String, Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(Map<String, Shard> shards) {
+        this.shards = shards;
+    }
+
+    public static class Shard {
+
+        private String url;
+        /** Defaults to spring.r2dbc.username. */
+        private String username;
+        /** Defaults to spring.r2dbc.password. */
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -1,18 +1,21 @@
 package com.dental.controller;
 
+import com.dental.cache.ResponseCache;
 import com.dental.dto.AppointmentDTO;
 import com.dental.security.TenantContext;
 import com.dental.service.AppointmentService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @RestController
@@ -20,23 +23,31 @@ import java.util.UUID;
 public class AppointmentController {
     
     private final AppointmentService appointmentService;
+    private final ResponseCache responseCache;
     
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService, ResponseCache responseCache) {
         this.appointmentService = appointmentService;
+        this.responseCache = responseCache;
     }
     
     @GetMapping
-    public Mono<ResponseEntity<Flux<AppointmentDTO>>> getAllAppointments(
+    public Mono<ResponseEntity<?>> getAllAppointments(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader HttpHeaders headers) {
         return TenantContext.getTenantId()
-                .map(tenantId -> {
+                .<ResponseEntity<?>>flatMap(tenantId -> {
                     if (startDate != null && endDate != null) {
                         LocalDateTime startDateTime = startDate.atStartOfDay();
                         LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-                        return ResponseEntity.ok(appointmentService.getAppointmentsByDateRange(tenantId, startDateTime, endDateTime));
+                        // Today's calendar is what every front desk polls: serve it pre-serialized
+                        if (startDate.equals(endDate) && startDate.equals(LocalDate.now())) {
+                            return responseCache.respond(tenantId, "appointments.day", startDate, headers,
+                                    () -> appointmentService.getAppointmentsByDateRange(tenantId, startDateTime, endDateTime).collectList());
+                        }
+                        return Mono.just(ResponseEntity.ok(appointmentService.getAppointmentsByDateRange(tenantId, startDateTime, endDateTime)));
                     } else {
-                        return ResponseEntity.ok(appointmentService.getAllAppointments(tenantId));
+                        return Mono.just(ResponseEntity.ok(appointmentService.getAllAppointments(tenantId)));
                     }
                 });
     }
@@ -54,7 +65,10 @@ public class AppointmentController {
         return TenantContext.getTenantId()
                 .flatMap(tenantId -> appointmentService.createAppointment(tenantId, dto)
                         .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created))
-                        .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build())));
+                        .onErrorResume(IllegalArgumentException.class,
+                                e -> Mono.just(ResponseEntity.badRequest().build()))
+                        .onErrorResume(DataIntegrityViolationException.class,
+                                e -> Mono.just(ResponseEntity.badRequest().build())));
     }
     
     @PutMapping("/{id}")
@@ -64,7 +78,10 @@ public class AppointmentController {
         return TenantContext.getTenantId()
                 .flatMap(tenantId -> appointmentService.updateAppointment(id, tenantId, dto)
                         .map(ResponseEntity::ok)
-                        .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                        .onErrorResume(NoSuchElementException.class,
+                                e -> Mono.just(ResponseEntity.notFound().build()))
+                        .onErrorResume(IllegalArgumentException.class,
+                                e -> Mono.just(ResponseEntity.badRequest().build())));
     }
     
     @DeleteMapping("/{id}")
@@ -72,6 +89,7 @@ public class AppointmentController {
         return TenantContext.getTenantId()
                 .flatMap(tenantId -> appointmentService.deleteAppointment(id, tenantId)
                         .then(Mono.just(ResponseEntity.noContent().<Void>build()))
-                        .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                        .onErrorResume(NoSuchElementException.class,
+                                e -> Mono.just(ResponseEntity.notFound().build())));
     }
 }
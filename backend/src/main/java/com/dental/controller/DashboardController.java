@@ -1,11 +1,17 @@
 package com.dental.controller;
 
-import com.dental.dto.DashboardStatsDTO;
+import com.dental.cache.ResponseCache;
+import com.dental.dto.DashboardTimeSeriesDTO;
 import com.dental.security.TenantContext;
 import com.dental.service.DashboardService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -14,14 +20,33 @@ import java.util.UUID;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final ResponseCache responseCache;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, ResponseCache responseCache) {
         this.dashboardService = dashboardService;
+        this.responseCache = responseCache;
     }
 
     @GetMapping("/stats")
-    public Mono<DashboardStatsDTO> getStats() {
+    public Mono<ResponseEntity<DataBuffer>> getStats(
+            @RequestHeader HttpHeaders headers) {
+        // "today" figures are part of the body, so the date is part of the key
         return TenantContext.getTenantId()
-                .flatMap(tenantId -> dashboardService.getStatsForTenant(tenantId));
+                .flatMap(tenantId -> responseCache.respond(tenantId, "dashboard.stats", LocalDate.now(), headers,
+                        () -> dashboardService.getStatsForTenant(tenantId)));
+    }
+
+    @GetMapping("/timeseries")
+    public Mono<ResponseEntity<DashboardTimeSeriesDTO>> getTimeSeries(
+            @RequestParam String metric,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate toDate = to != null ? to : LocalDate.now();
+        LocalDate fromDate = from != null ? from : toDate.minusDays(89);
+        return TenantContext.getTenantId()
+                .flatMap(tenantId -> dashboardService.getTimeSeries(tenantId, metric, fromDate, toDate)
+                        .map(ResponseEntity::ok)
+                        .onErrorResume(IllegalArgumentException.class,
+                                e -> Mono.just(ResponseEntity.badRequest().build())));
     }
 }
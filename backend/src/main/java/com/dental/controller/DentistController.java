@@ -1,38 +1,49 @@
 package com.dental.controller;
 
-import com.dental.dto.DentistDTO;
-import com.dental.repository.StaffRepository;
+import com.dental.cache.ConditionalGet;
+import com.dental.cache.ResponseCache;
+import com.dental.cache.TenantDataVersions;
 import com.dental.security.TenantContext;
+import com.dental.service.StaffService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/dentists")
 public class DentistController {
     
-    private final StaffRepository staffRepository;
+    public static final String CACHE_ROUTE = "dentists";
     
-    public DentistController(StaffRepository staffRepository) {
-        this.staffRepository = staffRepository;
+    private final StaffService staffService;
+    private final ResponseCache responseCache;
+    private final ConditionalGet conditionalGet;
+    
+    public DentistController(StaffService staffService,
+                             ResponseCache responseCache,
+                             ConditionalGet conditionalGet) {
+        this.staffService = staffService;
+        this.responseCache = responseCache;
+        this.conditionalGet = conditionalGet;
     }
     
     @GetMapping
-    public Mono<ResponseEntity<Flux<DentistDTO>>> getDentists() {
+    public Mono<ResponseEntity<DataBuffer>> getDentists(
+            @RequestHeader HttpHeaders headers) {
         return TenantContext.getTenantId()
-                .map(tenantId -> {
-                    Flux<DentistDTO> dentists = staffRepository.findByTenantIdAndNotDeleted(tenantId)
-                            .filter(staff -> staff.getUserId() != null)
-                            .map(staff -> new DentistDTO(
-                                    staff.getUserId(),
-                                    staff.getFirstName(),
-                                    staff.getLastName(),
-                                    staff.getFirstName() + " " + staff.getLastName()
-                            ));
-                    return ResponseEntity.ok(dentists);
-                });
+                .flatMap(tenantId -> conditionalGet.respond(tenantId, headers, List.of(TenantDataVersions.STAFF),
+                        () -> respondDentists(tenantId, headers)));
+    }
+    
+    /**
+     * The dentist list through the response cache; also used by the warm-up to fill it.
+     */
+    public Mono<ResponseEntity<DataBuffer>> respondDentists(UUID tenantId, HttpHeaders headers) {
+        return responseCache.respond(tenantId, CACHE_ROUTE, null, headers, () -> staffService.getDentists(tenantId));
     }
 }
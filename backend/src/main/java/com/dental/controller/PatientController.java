@@ -1,38 +1,52 @@
 package com.dental.controller;
 
+import com.dental.cache.ConditionalGet;
+import com.dental.cache.TenantDataVersions;
 import com.dental.dto.PatientDTO;
 import com.dental.security.TenantContext;
 import com.dental.service.PatientService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/patients")
 public class PatientController {
     
+    private static final List<String> VERSIONED_BY = List.of(TenantDataVersions.PATIENTS);
+    
     private final PatientService patientService;
+    private final ConditionalGet conditionalGet;
     
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, ConditionalGet conditionalGet) {
         this.patientService = patientService;
+        this.conditionalGet = conditionalGet;
     }
     
     @GetMapping
-    public Mono<ResponseEntity<Flux<PatientDTO>>> getAllPatients() {
+    public Mono<ResponseEntity<Flux<PatientDTO>>> getAllPatients(
+            @RequestHeader HttpHeaders headers) {
         return TenantContext.getTenantId()
-                .map(tenantId -> ResponseEntity.ok(patientService.getAllPatients(tenantId)));
+                .flatMap(tenantId -> conditionalGet.respond(tenantId, headers, VERSIONED_BY,
+                        () -> Mono.just(ResponseEntity.ok(patientService.getAllPatients(tenantId)))));
     }
     
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<PatientDTO>> getPatientById(@PathVariable UUID id) {
+    public Mono<ResponseEntity<PatientDTO>> getPatientById(
+            @PathVariable UUID id,
+            @RequestHeader HttpHeaders headers) {
         return TenantContext.getTenantId()
-                .flatMap(tenantId -> patientService.getPatientById(id, tenantId)
-                        .map(ResponseEntity::ok)
-                        .defaultIfEmpty(ResponseEntity.notFound().build()));
+                .flatMap(tenantId -> conditionalGet.respond(tenantId, headers, VERSIONED_BY,
+                        () -> patientService.getPatientById(id, tenantId)
+                                .map(ResponseEntity::ok)
+                                .defaultIfEmpty(ResponseEntity.notFound().build())));
     }
     
     @PostMapping
@@ -49,7 +63,8 @@ public class PatientController {
         return TenantContext.getTenantId()
                 .flatMap(tenantId -> patientService.updatePatient(id, tenantId, dto)
                         .map(ResponseEntity::ok)
-                        .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                        .onErrorResume(NoSuchElementException.class,
+                                e -> Mono.just(ResponseEntity.notFound().build())));
     }
     
     @DeleteMapping("/{id}")
@@ -57,6 +72,7 @@ public class PatientController {
         return TenantContext.getTenantId()
                 .flatMap(tenantId -> patientService.deletePatient(id, tenantId)
                         .then(Mono.just(ResponseEntity.noContent().<Void>build()))
-                        .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                        .onErrorResume(NoSuchElementException.class,
+                                e -> Mono.just(ResponseEntity.notFound().build())));
     }
 }
@@ -1,9 +1,13 @@
 package com.dental.controller;
 
+import com.dental.cache.ConditionalGet;
+import com.dental.cache.TenantDataVersions;
 import com.dental.dto.CreateStaffRequest;
 import com.dental.dto.StaffDTO;
 import com.dental.security.TenantContext;
 import com.dental.service.StaffService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,32 +15,40 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/staff")
 public class StaffController {
     
+    private static final List<String> VERSIONED_BY = List.of(TenantDataVersions.STAFF);
+    
     private final StaffService staffService;
+    private final ConditionalGet conditionalGet;
     
-    public StaffController(StaffService staffService) {
+    public StaffController(StaffService staffService, ConditionalGet conditionalGet) {
         this.staffService = staffService;
+        this.conditionalGet = conditionalGet;
     }
     
     @GetMapping
-    public Mono<ResponseEntity<List<StaffDTO>>> getAllStaff() {
+    public Mono<ResponseEntity<Flux<StaffDTO>>> getAllStaff(
+            @RequestHeader HttpHeaders headers) {
         return TenantContext.getTenantId()
-                .flatMapMany(tenantId -> staffService.getAllStaff(tenantId))
-                .collectList()
-                .map(ResponseEntity::ok);
+                .flatMap(tenantId -> conditionalGet.respond(tenantId, headers, VERSIONED_BY,
+                        () -> Mono.just(ResponseEntity.ok(staffService.getAllStaff(tenantId)))));
     }
     
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<StaffDTO>> getStaffById(@PathVariable UUID id) {
+    public Mono<ResponseEntity<StaffDTO>> getStaffById(
+            @PathVariable UUID id,
+            @RequestHeader HttpHeaders headers) {
         return TenantContext.getTenantId()
-                .flatMap(tenantId -> staffService.getStaffById(id, tenantId)
-                        .map(ResponseEntity::ok)
-                        .defaultIfEmpty(ResponseEntity.notFound().build()));
+                .flatMap(tenantId -> conditionalGet.respond(tenantId, headers, VERSIONED_BY,
+                        () -> staffService.getStaffById(id, tenantId)
+                                .map(ResponseEntity::ok)
+                                .defaultIfEmpty(ResponseEntity.notFound().build())));
     }
     
     @PostMapping
@@ -44,7 +56,8 @@ public class StaffController {
         return TenantContext.getTenantId()
                 .flatMap(tenantId -> staffService.createStaff(tenantId, request)
                         .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created))
-                        .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build())));
+                        .onErrorResume(DataIntegrityViolationException.class,
+                                e -> Mono.just(ResponseEntity.badRequest().build())));
     }
     
     @PutMapping("/{id}")
@@ -54,7 +67,8 @@ public class StaffController {
         return TenantContext.getTenantId()
                 .flatMap(tenantId -> staffService.updateStaff(id, tenantId, dto)
                         .map(ResponseEntity::ok)
-                        .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                        .onErrorResume(NoSuchElementException.class,
+                                e -> Mono.just(ResponseEntity.notFound().build())));
     }
     
     @DeleteMapping("/{id}")
@@ -62,6 +76,7 @@ public class StaffController {
         return TenantContext.getTenantId()
                 .flatMap(tenantId -> staffService.deleteStaff(id, tenantId)
                         .then(Mono.just(ResponseEntity.noContent().<Void>build()))
-                        .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                        .onErrorResume(NoSuchElementException.class,
+                                e -> Mono.just(ResponseEntity.notFound().build())));
     }
 }
@@ -4,6 +4,7 @@ import com.dental.dto.*;
 import com.dental.security.JwtUtil;
 import com.dental.security.TenantContext;
 import com.dental.service.UserService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,6 +12,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @RestController
@@ -61,7 +63,10 @@ public class UserController {
                     return TenantContext.getTenantId()
                             .flatMap(tenantId -> userService.createUser(tenantId, request)
                                     .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created))
-                                    .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build())));
+                                    .onErrorResume(IllegalArgumentException.class,
+                                            e -> Mono.just(ResponseEntity.badRequest().build()))
+                                    .onErrorResume(DataIntegrityViolationException.class,
+                                            e -> Mono.just(ResponseEntity.badRequest().build())));
                 });
     }
     
@@ -78,7 +83,8 @@ public class UserController {
                     return TenantContext.getTenantId()
                             .flatMap(tenantId -> userService.updateUser(id, tenantId, request)
                                     .map(ResponseEntity::ok)
-                                    .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                                    .onErrorResume(NoSuchElementException.class,
+                                            e -> Mono.just(ResponseEntity.notFound().build())));
                 });
     }
     
@@ -95,7 +101,10 @@ public class UserController {
                     return TenantContext.getTenantId()
                             .flatMap(tenantId -> userService.changePassword(id, tenantId, request)
                                     .then(Mono.just(ResponseEntity.ok().<Void>build()))
-                                    .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build())));
+                                    .onErrorResume(IllegalArgumentException.class,
+                                            e -> Mono.just(ResponseEntity.badRequest().build()))
+                                    .onErrorResume(NoSuchElementException.class,
+                                            e -> Mono.just(ResponseEntity.badRequest().build())));
                 });
     }
     
@@ -111,7 +120,8 @@ public class UserController {
                     return TenantContext.getTenantId()
                             .flatMap(tenantId -> userService.deactivateUser(id, tenantId)
                                     .then(Mono.just(ResponseEntity.ok().<Void>build()))
-                                    .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                                    .onErrorResume(NoSuchElementException.class,
+                                            e -> Mono.just(ResponseEntity.notFound().build())));
                 });
     }
     
@@ -127,7 +137,8 @@ public class UserController {
                     return TenantContext.getTenantId()
                             .flatMap(tenantId -> userService.activateUser(id, tenantId)
                                     .then(Mono.just(ResponseEntity.ok().<Void>build()))
-                                    .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build())));
+                                    .onErrorResume(NoSuchElementException.class,
+                                            e -> Mono.just(ResponseEntity.notFound().build())));
                 });
     }
     
@@ -144,7 +155,8 @@ public class UserController {
                     return TenantContext.getTenantId()
                             .flatMap(tenantId -> userService.linkUserToStaff(userId, staffId, tenantId)
                                     .then(Mono.just(ResponseEntity.ok().<Void>build()))
-                                    .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build())));
+                                    .onErrorResume(DataIntegrityViolationException.class,
+                                            e -> Mono.just(ResponseEntity.badRequest().build())));
                 });
     }
     
@@ -160,7 +172,10 @@ public class UserController {
                     return TenantContext.getTenantId()
                             .flatMap(tenantId -> userService.unlinkUserFromStaff(userId, tenantId)
                                     .then(Mono.just(ResponseEntity.ok().<Void>build()))
-                                    .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build())));
+                                    .onErrorResume(IllegalArgumentException.class,
+                                            e -> Mono.just(ResponseEntity.badRequest().build()))
+                                    .onErrorResume(NoSuchElementException.class,
+                                            e -> Mono.just(ResponseEntity.badRequest().build())));
                 });
     }
 }
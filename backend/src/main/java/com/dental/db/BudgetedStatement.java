@@ -0,0 +1,136 @@
+package com.dental.db;
+
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Statement of a {@link RequestBoundConnection} whose request has a {@link RequestDbStats}.
+ * Checks the request's enforced {@link DbBudget} before the statement is sent, and again
+ * for every row read, so a request that goes over its budget on a connection it already
+ * holds (a long transaction, an unbounded streamed list) is stopped there: the statement is
+ * refused, or the row stream is cancelled, with a {@link DbBudgetExceededException}.
+ * Rows are counted by {@link QueryMetricsListener} below this wrapper, so the check sees
+ * the row it is about to pass on.
+ */
+class BudgetedStatement implements Statement, Wrapped<Statement> {
+
+    private final Statement delegate;
+    private final RequestDbStats stats;
+
+    BudgetedStatement(Statement delegate, RequestDbStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    public Statement add() {
+        delegate.add();
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        delegate.bind(index, value);
+        return this;
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        delegate.bind(name, value);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        delegate.bindNull(index, type);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        delegate.bindNull(name, type);
+        return this;
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        delegate.returnGeneratedValues(columns);
+        return this;
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        delegate.fetchSize(rows);
+        return this;
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        return Flux.defer(() -> {
+            DbBudgetExceededException overBudget = stats.nextStatementError();
+            if (overBudget != null) {
+                return Flux.error(overBudget);
+            }
+            return Flux.from(delegate.execute()).map(result -> new BudgetedResult(result, stats));
+        });
+    }
+
+    @Override
+    public Statement unwrap() {
+        return delegate;
+    }
+
+    private record BudgetedResult(Result delegate, RequestDbStats stats) implements Result, Wrapped<Result> {
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return delegate.getRowsUpdated();
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return withinBudget(delegate.map(mappingFunction));
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return withinBudget(delegate.map(mappingFunction));
+        }
+
+        @Override
+        public Result filter(Predicate<Result.Segment> filter) {
+            return new BudgetedResult(delegate.filter(filter), stats);
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Result.Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            return withinBudget(delegate.flatMap(mappingFunction));
+        }
+
+        private <T> Flux<T> withinBudget(Publisher<T> rows) {
+            return Flux.from(rows).handle((row, sink) -> {
+                DbBudgetExceededException overBudget = stats.enforcedBudgetError();
+                if (overBudget != null) {
+                    sink.error(overBudget);
+                } else {
+                    sink.next(row);
+                }
+            });
+        }
+
+        @Override
+        public Result unwrap() {
+            return delegate;
+        }
+    }
+}
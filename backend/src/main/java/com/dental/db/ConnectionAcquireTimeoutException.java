@@ -0,0 +1,14 @@
+package com.dental.db;
+
+import io.r2dbc.spi.R2dbcTransientResourceException;
+
+/**
+ * Raised when no pooled connection could be acquired within the configured budget.
+ * Mapped to 503 Service Unavailable by {@link DatabaseUnavailableHandler}.
+ */
+public class ConnectionAcquireTimeoutException extends R2dbcTransientResourceException {
+
+    public ConnectionAcquireTimeoutException(String reason, Throwable cause) {
+        super(reason, cause);
+    }
+}
@@ -0,0 +1,147 @@
+package com.dental.db;
+
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Wrapped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which request currently holds each physical connection.
+ * A pooled connection serves one reactive chain at a time, so binding on acquire is enough
+ * for the query listener (which has no access to the Reactor Context) to attribute
+ * statements to the right request. The binding is removed when the pooled connection is
+ * closed ({@link RequestBoundConnection}), so the map only holds checked-out connections
+ * and never outlives a connection the pool evicts.
+ * <p>
+ * The same binding lets a request whose deadline passed, or whose client went away, have
+ * its statements cancelled on the server instead of running to completion on a
+ * connection nobody is waiting for. A Postgres cancel hits whatever the backend is running
+ * when it arrives, so it is only sent for a connection that is still checked out by that
+ * request and has a statement in flight (counted by {@link QueryMetricsListener}); both
+ * are checked under the binding's lock, and releasing the connection waits for a cancel
+ * already sent, so the connection cannot reach its next holder in the meantime.
+ */
+@Component
+public class ConnectionRequestRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionRequestRegistry.class);
+
+    private final Map<Connection, Binding> bindings = new ConcurrentHashMap<>();
+
+    public void bind(Connection connection, RequestDbStats stats) {
+        Connection physical = unwrap(connection);
+        if (stats == null) {
+            release(physical);
+        } else {
+            bindings.put(physical, new Binding(stats));
+        }
+    }
+
+    /**
+     * Forgets the request holding this connection; called when it is released to the pool
+     * or closed.
+     *
+     * @return completes once a cancel request sent for this connection has been delivered
+     */
+    public Mono<Void> release(Connection connection) {
+        Binding binding = bindings.remove(unwrap(connection));
+        if (binding == null) {
+            return Mono.empty();
+        }
+        synchronized (binding) {
+            binding.released = true;
+            return binding.pendingCancel;
+        }
+    }
+
+    public RequestDbStats lookup(Connection physicalConnection) {
+        Binding binding = physicalConnection == null ? null : bindings.get(physicalConnection);
+        return binding != null ? binding.stats : null;
+    }
+
+    /**
+     * A statement started on this connection.
+     */
+    public void statementStarted(Connection physicalConnection) {
+        Binding binding = physicalConnection == null ? null : bindings.get(physicalConnection);
+        if (binding != null) {
+            synchronized (binding) {
+                binding.running++;
+            }
+        }
+    }
+
+    /**
+     * A statement on this connection completed, failed or was cancelled.
+     */
+    public void statementFinished(Connection physicalConnection) {
+        Binding binding = physicalConnection == null ? null : bindings.get(physicalConnection);
+        if (binding != null) {
+            synchronized (binding) {
+                binding.running = Math.max(0, binding.running - 1);
+            }
+        }
+    }
+
+    /**
+     * Sends a Postgres cancel request on every connection the request still holds and is
+     * running a statement on.
+     *
+     * @return number of connections a cancel was sent for
+     */
+    public int cancelRunning(RequestDbStats stats) {
+        if (stats == null) {
+            return 0;
+        }
+        int cancelled = 0;
+        for (Map.Entry<Connection, Binding> entry : bindings.entrySet()) {
+            Binding binding = entry.getValue();
+            if (binding.stats != stats || !(entry.getKey() instanceof PostgresqlConnection postgres)) {
+                continue;
+            }
+            synchronized (binding) {
+                if (binding.released || binding.running == 0) {
+                    continue;
+                }
+                Mono<Void> cancel = Mono.from(postgres.cancelRequest())
+                        .onErrorResume(e -> {
+                            log.debug("Statement cancel request failed: {}", e.toString());
+                            return Mono.empty();
+                        })
+                        .cache();
+                binding.pendingCancel = binding.pendingCancel.then(cancel);
+                cancel.subscribe();
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    private static Connection unwrap(Connection connection) {
+        Connection current = connection;
+        while (current instanceof Wrapped<?> wrapped && wrapped.unwrap() instanceof Connection inner && inner != current) {
+            current = inner;
+        }
+        return current;
+    }
+
+    /**
+     * One checkout of a physical connection by a request; guarded by its own monitor.
+     */
+    private static final class Binding {
+        private final RequestDbStats stats;
+        private int running;
+        private boolean released;
+        private Mono<Void> pendingCancel = Mono.empty();
+
+        Binding(RequestDbStats stats) {
+            this.stats = stats;
+        }
+    }
+}
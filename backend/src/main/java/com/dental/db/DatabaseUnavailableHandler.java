@@ -0,0 +1,75 @@
+package com.dental.db;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers 503 with Retry-After when a request failed because the connection pool was exhausted,
+ * 413/503 when an enforced per-request database budget refused it more work, and 504 when
+ * its {@link RequestDeadline} passed.
+ * Runs before Spring Boot's default error handler (order -2).
+ */
+@Component
+@Order(-3)
+public class DatabaseUnavailableHandler implements WebExceptionHandler {
+
+    private static final byte[] BODY =
+            "{\"error\":\"Service temporarily unavailable, please retry\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TOO_MANY_ROWS_BODY =
+            "{\"error\":\"Result too large, narrow the request\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OVER_BUDGET_BODY =
+            "{\"error\":\"Request exceeded its database budget\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DEADLINE_BODY =
+            "{\"error\":\"Request timed out\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+        if (find(ex, ConnectionAcquireTimeoutException.class) != null) {
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return write(response, HttpStatus.SERVICE_UNAVAILABLE, BODY);
+        }
+        if (find(ex, DeadlineExceededException.class) != null) {
+            return write(response, HttpStatus.GATEWAY_TIMEOUT, DEADLINE_BODY);
+        }
+        DbBudgetExceededException overBudget = find(ex, DbBudgetExceededException.class);
+        if (overBudget != null) {
+            return RequestDbStats.LIMIT_ROWS.equals(overBudget.getLimit())
+                    ? write(response, HttpStatus.PAYLOAD_TOO_LARGE, TOO_MANY_ROWS_BODY)
+                    : write(response, HttpStatus.SERVICE_UNAVAILABLE, OVER_BUDGET_BODY);
+        }
+        return Mono.error(ex);
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, HttpStatus status, byte[] body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private <T extends Throwable> T find(Throwable ex, Class<T> type) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return type.cast(t);
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.dental.db;
+
+import java.time.Duration;
+
+/**
+ * Per-request database limits. When {@code enforce} is off an exceeded budget is only
+ * reported; when on, the request is refused its next connection or statement, and a
+ * row stream going over {@code maxRows} is cut off.
+ */
+public record DbBudget(int maxStatements, long maxRows, Duration maxDbTime, boolean enforce) {
+
+    public static final DbBudget UNLIMITED = new DbBudget(Integer.MAX_VALUE, Long.MAX_VALUE, Duration.ofDays(1), false);
+}
@@ -0,0 +1,22 @@
+package com.dental.db;
+
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+
+/**
+ * Raised when an enforced {@link DbBudget} is exceeded and the request asks for another
+ * connection or statement, or reads one row too many. Translated to 413 (too many rows) or 503 (too many statements or too much
+ * database time) by {@link DatabaseUnavailableHandler}.
+ */
+public class DbBudgetExceededException extends R2dbcNonTransientResourceException {
+
+    private final String limit;
+
+    public DbBudgetExceededException(String limit, String message) {
+        super(message);
+        this.limit = limit;
+    }
+
+    public String getLimit() {
+        return limit;
+    }
+}
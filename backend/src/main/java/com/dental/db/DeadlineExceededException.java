@@ -0,0 +1,15 @@
+package com.dental.db;
+
+import io.r2dbc.spi.R2dbcTimeoutException;
+
+/**
+ * Raised when a request's {@link RequestDeadline} passes, either while it waits for a
+ * connection or anywhere else in its chain. Mapped to 504 Gateway Timeout by
+ * {@link DatabaseUnavailableHandler}.
+ */
+public class DeadlineExceededException extends R2dbcTimeoutException {
+
+    public DeadlineExceededException(String reason) {
+        super(reason);
+    }
+}
@@ -0,0 +1,116 @@
+package com.dental.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decorates the pool to time every connection acquisition and to turn acquisition
+ * timeouts into {@link ConnectionAcquireTimeoutException}, so an exhausted pool fails
+ * fast with a 503 instead of surfacing as an opaque data-access error. Other failures
+ * (bad credentials, database down) are recorded as failed acquisitions and propagate.
+ * On acquire it also binds the connection to the caller's {@link RequestDbStats} until the
+ * connection is closed (see {@link RequestBoundConnection}, which also checks the budget
+ * per statement and per row), and
+ * refuses the connection when that request has gone over an enforced {@link DbBudget}
+ * or its {@link RequestDeadline} has passed, and waits no longer than the deadline allows.
+ * Implements {@link Wrapped} so Spring Boot still finds the underlying pool and exports
+ * its r2dbc.pool.* gauges.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private final ConnectionFactory delegate;
+    private final Duration maxAcquireTime;
+    private final ConnectionRequestRegistry connectionRequestRegistry;
+    private final Timer acquireSuccess;
+    private final Timer acquireFailure;
+
+    public MeteredConnectionFactory(ConnectionFactory delegate, String poolName, Duration maxAcquireTime,
+                                    ConnectionRequestRegistry connectionRequestRegistry, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxAcquireTime = maxAcquireTime;
+        this.connectionRequestRegistry = connectionRequestRegistry;
+        this.acquireSuccess = acquireTimer(poolName, "success", registry);
+        this.acquireFailure = acquireTimer(poolName, "failure", registry);
+    }
+
+    private static Timer acquireTimer(String poolName, String outcome, MeterRegistry registry) {
+        return Timer.builder("r2dbc.pool.acquire")
+                .description("Time spent waiting for a pooled connection")
+                .tag("name", poolName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            RequestDbStats stats = RequestDbStats.from(context);
+            DbBudgetExceededException overBudget = stats != null ? stats.enforcedBudgetError() : null;
+            if (overBudget != null) {
+                return Mono.error(overBudget);
+            }
+            RequestDeadline deadline = RequestDeadline.from(context);
+            if (deadline != null && deadline.isExpired()) {
+                return Mono.error(new DeadlineExceededException(
+                        "Request deadline of " + deadline.getTimeout().toMillis() + "ms passed before acquiring a connection"));
+            }
+            long start = System.nanoTime();
+            Mono<Connection> acquire = Mono.<Connection>from(delegate.create())
+                    .doOnNext(connection -> {
+                        acquireSuccess.record(Duration.ofNanos(System.nanoTime() - start));
+                        connectionRequestRegistry.bind(connection, stats);
+                    })
+                    .<Connection>map(connection -> new RequestBoundConnection(connection, connectionRequestRegistry, stats))
+                    .doOnError(e -> acquireFailure.record(Duration.ofNanos(System.nanoTime() - start)))
+                    // Only an exhausted pool is a timeout; authentication errors or a database
+                    // that is down propagate as they are
+                    .onErrorMap(MeteredConnectionFactory::isAcquireTimeout, e -> new ConnectionAcquireTimeoutException(
+                            "Could not acquire a database connection within " + maxAcquireTime.toMillis() + "ms", e));
+            if (deadline == null || deadline.remaining().compareTo(maxAcquireTime) >= 0) {
+                return acquire;
+            }
+            // Less time left than the pool would wait: give up when the request does
+            return acquire.timeout(deadline.remaining(), Mono.error(() -> {
+                acquireFailure.record(Duration.ofNanos(System.nanoTime() - start));
+                return new DeadlineExceededException(
+                        "Request deadline of " + deadline.getTimeout().toMillis() + "ms passed while waiting for a connection");
+            }));
+        });
+    }
+
+    /**
+     * The pool's maxAcquireTime expiring (r2dbc-pool and reactor-pool both raise a
+     * {@link TimeoutException} subtype), possibly wrapped by the driver.
+     */
+    private static boolean isAcquireTimeout(Throwable e) {
+        return !(e instanceof ConnectionAcquireTimeoutException)
+                && (e instanceof TimeoutException || e.getCause() instanceof TimeoutException);
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.dental.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * r2dbc-proxy listener: records a db.query timer per normalized SQL statement, logs
+ * statements slower than the threshold, and adds each statement to the owning
+ * request's {@link RequestDbStats} (statement, time and rows read). It also tells the
+ * {@link ConnectionRequestRegistry} when a statement is in flight on a connection.
+ */
+public class QueryMetricsListener implements ProxyExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryMetricsListener.class);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![$\\w])\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SQL_TAG_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final ConnectionRequestRegistry connectionRequestRegistry;
+    private final Duration slowQueryThreshold;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+
+    public QueryMetricsListener(MeterRegistry meterRegistry,
+                                ConnectionRequestRegistry connectionRequestRegistry,
+                                Duration slowQueryThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.connectionRequestRegistry = connectionRequestRegistry;
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    @Override
+    public void beforeQuery(QueryExecutionInfo execInfo) {
+        connectionRequestRegistry.statementStarted(execInfo.getConnectionInfo().getOriginalConnection());
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        connectionRequestRegistry.statementFinished(execInfo.getConnectionInfo().getOriginalConnection());
+        Duration elapsed = execInfo.getExecuteDuration();
+        String sql = execInfo.getQueries().stream()
+                .map(QueryInfo::getQuery)
+                .map(this::normalize)
+                .collect(Collectors.joining("; "));
+
+        timerFor(sql, execInfo.isSuccess()).record(elapsed);
+
+        RequestDbStats stats = connectionRequestRegistry.lookup(execInfo.getConnectionInfo().getOriginalConnection());
+        if (stats != null) {
+            stats.recordStatement(elapsed.toNanos());
+        }
+
+        if (elapsed.compareTo(slowQueryThreshold) >= 0) {
+            int bindSets = execInfo.getBindingsSize();
+            int parameters = execInfo.getQueries().stream()
+                    .flatMap(query -> query.getBindingsList().stream())
+                    .mapToInt(this::parameterCount)
+                    .max()
+                    .orElse(0);
+            log.warn("Slow query: {}ms, bindSets={}, params={}, success={}, sql={}",
+                    elapsed.toMillis(), bindSets, parameters, execInfo.isSuccess(), sql);
+        }
+    }
+
+    @Override
+    public void eachQueryResult(QueryExecutionInfo execInfo) {
+        RequestDbStats stats = connectionRequestRegistry.lookup(execInfo.getConnectionInfo().getOriginalConnection());
+        if (stats != null) {
+            stats.recordRow();
+        }
+    }
+
+    private int parameterCount(Bindings bindings) {
+        return bindings.getIndexBindings().size() + bindings.getNamedBindings().size();
+    }
+
+    private Timer timerFor(String sql, boolean success) {
+        String key = sql + (success ? "|ok" : "|error");
+        return timers.computeIfAbsent(key, k -> Timer.builder("db.query")
+                .description("R2DBC statement execution time by normalized SQL")
+                .tag("sql", sql.length() > MAX_SQL_TAG_LENGTH ? sql.substring(0, MAX_SQL_TAG_LENGTH) : sql)
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    String normalize(String sql) {
+        return normalized.computeIfAbsent(sql, raw -> {
+            String result = STRING_LITERAL.matcher(raw).replaceAll("?");
+            result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+            return WHITESPACE.matcher(result).replaceAll(" ").trim();
+        });
+    }
+}
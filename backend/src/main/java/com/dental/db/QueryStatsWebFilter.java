@@ -0,0 +1,87 @@
+package com.dental.db;
+
+import com.dental.config.DbBudgetProperties;
+import com.dental.security.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * Opens a {@link RequestDbStats} for every request and reports it back to the client as
+ * a Server-Timing header ({@code db;dur=<ms>;desc="<n> queries"}). The header reflects the
+ * statements completed when the response is committed, which for streamed bodies can be
+ * before the last query finishes; the debug log line has the final numbers.
+ * Requests that went over their {@link DbBudget} are logged as a warning with route and
+ * tenant and counted in {@code db.budget.exceeded}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryStatsWebFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStatsWebFilter.class);
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final DbBudget budget;
+    private final MeterRegistry meterRegistry;
+
+    public QueryStatsWebFilter(DbBudgetProperties budgetProperties, MeterRegistry meterRegistry) {
+        this.budget = budgetProperties.toBudget();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        RequestDbStats stats = new RequestDbStats(budget);
+        exchange.getResponse().beforeCommit(() -> {
+            exchange.getResponse().getHeaders().add(SERVER_TIMING, String.format(Locale.ROOT,
+                    "db;dur=%.1f;desc=\"%d queries\"", stats.getDbMillis(), stats.getStatements()));
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (log.isDebugEnabled() && stats.getStatements() > 0) {
+                        log.debug("{} {} ran {} queries in {}ms",
+                                exchange.getRequest().getMethod(), exchange.getRequest().getPath().value(),
+                                stats.getStatements(), String.format(Locale.ROOT, "%.1f", stats.getDbMillis()));
+                    }
+                    String limit = stats.exceededLimit();
+                    if (limit != null) {
+                        reportOverBudget(exchange, stats, limit);
+                    }
+                })
+                .contextWrite(RequestDbStats.withStats(stats));
+    }
+
+    private void reportOverBudget(ServerWebExchange exchange, RequestDbStats stats, String limit) {
+        String route = route(exchange);
+        Object tenantId = exchange.getAttribute(TenantContext.TENANT_ID_ATTRIBUTE);
+        log.warn("DB budget exceeded: limit={} route=\"{} {}\" tenant={} statements={} rows={} dbMs={} enforced={}",
+                limit, exchange.getRequest().getMethod(), route, tenantId != null ? tenantId : "none",
+                stats.getStatements(), stats.getRows(), String.format(Locale.ROOT, "%.1f", stats.getDbMillis()),
+                budget.enforce());
+        Counter.builder("db.budget.exceeded")
+                .description("Requests that went over their per-request database budget")
+                .tag("route", route)
+                .tag("limit", limit)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String route(ServerWebExchange exchange) {
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.getPatternString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,51 @@
+package com.dental.db;
+
+import com.dental.config.ReplicaProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes for replica routing: remembers when each tenant last committed a write,
+ * so its reads stay on the primary until the replica has had {@code stickyWindow} to
+ * catch up. Entries past the window are dropped as they are looked at or purged.
+ * <p>
+ * The map is local to this node: it only knows about writes committed through it. With
+ * several nodes behind the load balancer, read-your-writes holds only if a tenant's
+ * requests stick to one node (session affinity on the tenant, e.g. by its JWT or a
+ * cookie); a write on one node followed by a read on another may be served by a replica
+ * that has not replayed it yet, for up to {@code maxLag}.
+ */
+@Component
+public class RecentWrites {
+
+    private final long windowNanos;
+    private final Map<UUID, Long> lastWrite = new ConcurrentHashMap<>();
+
+    public RecentWrites(ReplicaProperties properties) {
+        this.windowNanos = properties.getStickyWindow().toNanos();
+    }
+
+    public void markWrite(UUID tenantId) {
+        lastWrite.put(tenantId, System.nanoTime());
+    }
+
+    public boolean isSticky(UUID tenantId) {
+        Long written = lastWrite.get(tenantId);
+        if (written == null) {
+            return false;
+        }
+        if (System.nanoTime() - written < windowNanos) {
+            return true;
+        }
+        lastWrite.remove(tenantId, written);
+        return false;
+    }
+
+    void purgeExpired() {
+        long now = System.nanoTime();
+        lastWrite.values().removeIf(written -> now - written >= windowNanos);
+    }
+}
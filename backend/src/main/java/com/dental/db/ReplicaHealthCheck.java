@@ -0,0 +1,25 @@
+package com.dental.db;
+
+import com.dental.sharding.ShardRoutingConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Periodically probes the read replica so reads fall back to the primary while it is down
+ * or lagging, and return to it once it recovers.
+ */
+@Component
+public class ReplicaHealthCheck {
+
+    private final ReplicaRoutingConnectionFactory connectionFactory;
+
+    public ReplicaHealthCheck(ShardRoutingConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory.getMain();
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dental.r2dbc.replica.health-check-interval:PT5S}")
+    public Mono<Void> check() {
+        return connectionFactory.checkReplica();
+    }
+}
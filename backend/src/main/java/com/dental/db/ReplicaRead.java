@@ -0,0 +1,18 @@
+package com.dental.db;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a repository query method as safe to serve from the read replica: it only reads,
+ * and a result a few seconds stale is acceptable. Entity lookups that feed a write
+ * (read-modify-save) must stay unmarked. Applied by {@link ReplicaReadRepositoryPostProcessor}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
@@ -0,0 +1,42 @@
+package com.dental.db;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adds an advice to every Spring Data repository that routes the publishers returned by
+ * {@link ReplicaRead} methods to the replica. Customizes the repository factory beans
+ * before they build their proxies.
+ */
+@Component
+public class ReplicaReadRepositoryPostProcessor implements BeanPostProcessor {
+
+    private static final MethodInterceptor REPLICA_READS = invocation -> {
+        Object result = invocation.proceed();
+        if (!AnnotatedElementUtils.hasAnnotation(invocation.getMethod(), ReplicaRead.class)) {
+            return result;
+        }
+        if (result instanceof Mono<?> mono) {
+            return ReplicaReads.route(mono);
+        }
+        if (result instanceof Flux<?> flux) {
+            return ReplicaReads.route(flux);
+        }
+        return result;
+    };
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(REPLICA_READS)));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,30 @@
+package com.dental.db;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Reactor Context flag asking {@link ReplicaRoutingConnectionFactory} for a replica
+ * connection. It only affects connections acquired by the wrapped publisher; inside a
+ * transaction the already bound primary connection is reused.
+ */
+public final class ReplicaReads {
+
+    private static final String CONTEXT_KEY = ReplicaReads.class.getName();
+
+    private ReplicaReads() {
+    }
+
+    public static <T> Mono<T> route(Mono<T> reads) {
+        return reads.contextWrite(context -> context.put(CONTEXT_KEY, Boolean.TRUE));
+    }
+
+    public static <T> Flux<T> route(Flux<T> reads) {
+        return reads.contextWrite(context -> context.put(CONTEXT_KEY, Boolean.TRUE));
+    }
+
+    public static boolean requested(ContextView context) {
+        return context.hasKey(CONTEXT_KEY);
+    }
+}
@@ -0,0 +1,199 @@
+package com.dental.db;
+
+import com.dental.config.ReplicaProperties;
+import com.dental.security.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * The main shard's {@link ConnectionFactory}: hands out primary connections, except to
+ * publishers routed with {@link ReplicaReads} (repository methods marked {@link ReplicaRead},
+ * dashboard queries), which get a replica connection unless
+ * <ul>
+ *   <li>no replica is configured,</li>
+ *   <li>the replica failed its last health check, is not a standby (not in recovery) or
+ *       lags more than {@code maxLag},</li>
+ *   <li>the request's tenant wrote within the sticky window ({@link RecentWrites}; this
+ *       node's writes only, so it needs sticky sessions per tenant), or</li>
+ *   <li>the replica connection cannot be acquired, which also marks the replica down
+ *       until the next successful {@link #checkReplica() check}.</li>
+ * </ul>
+ * Both sides are {@link MeteredConnectionFactory} pools, so budgets, deadlines and
+ * statement cancellation apply either way. {@link #unwrap()} exposes the primary so
+ * Spring Boot keeps exporting its pool gauges.
+ */
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingConnectionFactory.class);
+
+    /**
+     * Lag is zero on a standby that has replayed everything it received, so an idle primary
+     * does not make it look lagged. A server that is not in recovery is not a standby of
+     * anything (misconfigured URL, or promoted after a failover) and is never used.
+     */
+    private static final String LAG_SQL =
+            "SELECT pg_is_in_recovery() AS in_recovery, " +
+            "CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END::float8 AS lag_seconds";
+
+    private final MeteredConnectionFactory primary;
+    private final MeteredConnectionFactory replica;
+    private final RecentWrites recentWrites;
+    private final ReplicaProperties properties;
+    private final Counter toReplica;
+    private final Counter sticky;
+    private final Counter unhealthy;
+    private final Counter failover;
+    private volatile boolean replicaHealthy = true;
+    private volatile double lagSeconds;
+
+    public ReplicaRoutingConnectionFactory(MeteredConnectionFactory primary, MeteredConnectionFactory replica,
+                                           RecentWrites recentWrites, ReplicaProperties properties,
+                                           MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.recentWrites = recentWrites;
+        this.properties = properties;
+        this.toReplica = routed("replica", "replica", meterRegistry);
+        this.sticky = routed("primary", "sticky", meterRegistry);
+        this.unhealthy = routed("primary", "unhealthy", meterRegistry);
+        this.failover = routed("primary", "failover", meterRegistry);
+        if (replica != null) {
+            Gauge.builder("dental.db.replica.healthy", this, routing -> routing.replicaHealthy ? 1 : 0)
+                    .description("Whether replica reads are being routed to the replica (1) or to the primary (0)")
+                    .register(meterRegistry);
+            Gauge.builder("dental.db.replica.lag", this, routing -> routing.lagSeconds)
+                    .description("Replication lag seen by the last replica health check")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static Counter routed(String target, String reason, MeterRegistry registry) {
+        return Counter.builder("dental.db.route")
+                .description("Replica-eligible connection requests by where they were served")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        if (replica == null) {
+            return primary.create();
+        }
+        return Mono.deferContextual(context -> {
+            if (!ReplicaReads.requested(context)) {
+                return primary.create();
+            }
+            if (!replicaHealthy) {
+                unhealthy.increment();
+                return primary.create();
+            }
+            UUID tenantId = TenantContext.find(context);
+            if (tenantId != null && recentWrites.isSticky(tenantId)) {
+                sticky.increment();
+                return primary.create();
+            }
+            return replica.create()
+                    .doOnNext(connection -> toReplica.increment())
+                    // Any failure to connect (pool exhausted, replica down or refusing us) falls
+                    // back; the request's own budget and deadline errors stand
+                    .onErrorResume(ReplicaRoutingConnectionFactory::isReplicaFailure, e -> {
+                        markReplica(false, e.getCause() != null ? e.getCause().toString() : e.toString());
+                        failover.increment();
+                        return primary.create();
+                    });
+        });
+    }
+
+    private static boolean isReplicaFailure(Throwable e) {
+        return !(e instanceof DeadlineExceededException || e instanceof DbBudgetExceededException);
+    }
+
+    /**
+     * Probes the replica and updates whether replica reads are routed to it; run
+     * periodically by {@link ReplicaHealthCheck}. Never errors.
+     */
+    public Mono<Void> checkReplica() {
+        if (replica == null) {
+            return Mono.empty();
+        }
+        return Mono.usingWhen(replica.create(),
+                        connection -> Flux.from(connection.createStatement(LAG_SQL).execute())
+                                .flatMap(result -> result.map((row, metadata) -> new ReplicaStatus(
+                                        Boolean.TRUE.equals(row.get("in_recovery", Boolean.class)),
+                                        row.get("lag_seconds", Double.class))))
+                                .next(),
+                        Connection::close)
+                .timeout(properties.getHealthCheckInterval())
+                .doOnNext(status -> {
+                    lagSeconds = status.lagSeconds();
+                    if (!status.inRecovery()) {
+                        markReplica(false, "not a standby (not in recovery)");
+                        return;
+                    }
+                    boolean caughtUp = status.lagSeconds() * 1000 <= properties.getMaxLag().toMillis();
+                    markReplica(caughtUp, caughtUp ? null : String.format("lagging %.1fs", status.lagSeconds()));
+                })
+                .doOnError(e -> markReplica(false, e.toString()))
+                .onErrorResume(e -> Mono.empty())
+                .then(Mono.fromRunnable(recentWrites::purgeExpired));
+    }
+
+    private void markReplica(boolean healthy, String reason) {
+        if (replicaHealthy == healthy) {
+            return;
+        }
+        replicaHealthy = healthy;
+        if (healthy) {
+            log.info("Read replica is healthy again, routing replica reads to it");
+        } else {
+            log.warn("Read replica unavailable ({}), routing replica reads to the primary", reason);
+        }
+    }
+
+    boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+
+    /**
+     * The replica pool, or {@code null} when no replica is configured.
+     */
+    public ConnectionFactory getReplica() {
+        return replica;
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public void dispose() {
+        primary.dispose();
+        if (replica != null) {
+            replica.dispose();
+        }
+    }
+
+    private record ReplicaStatus(boolean inRecovery, double lagSeconds) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.dental.db;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pooled connection handed out by {@link MeteredConnectionFactory}. Closing it releases
+ * the physical connection's binding in the {@link ConnectionRequestRegistry} before the
+ * connection goes back to the pool (or is closed), so the registry only ever holds
+ * checked-out connections and the pool's validation query on the next acquire is not
+ * charged to the previous request. If a cancel request was sent for the request's running
+ * statement, the connection is only handed back once it has been delivered. Statements
+ * of a request with a {@link RequestDbStats} are {@link BudgetedStatement}s, checked
+ * against its budget before they run and while their rows are read.
+ */
+class RequestBoundConnection implements Connection, Wrapped<Connection> {
+
+    private final Connection delegate;
+    private final ConnectionRequestRegistry connectionRequestRegistry;
+    private final RequestDbStats stats;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    RequestBoundConnection(Connection delegate, ConnectionRequestRegistry connectionRequestRegistry,
+                           RequestDbStats stats) {
+        this.delegate = delegate;
+        this.connectionRequestRegistry = connectionRequestRegistry;
+        this.stats = stats;
+    }
+
+    @Override
+    public Publisher<Void> close() {
+        return Mono.defer(() -> {
+            if (released.compareAndSet(false, true)) {
+                return connectionRequestRegistry.release(delegate).then(Mono.from(delegate.close()));
+            }
+            return Mono.from(delegate.close());
+        });
+    }
+
+    @Override
+    public Publisher<Void> beginTransaction() {
+        return delegate.beginTransaction();
+    }
+
+    @Override
+    public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+        return delegate.beginTransaction(definition);
+    }
+
+    @Override
+    public Publisher<Void> commitTransaction() {
+        return delegate.commitTransaction();
+    }
+
+    @Override
+    public Batch createBatch() {
+        return delegate.createBatch();
+    }
+
+    @Override
+    public Publisher<Void> createSavepoint(String name) {
+        return delegate.createSavepoint(name);
+    }
+
+    @Override
+    public Statement createStatement(String sql) {
+        Statement statement = delegate.createStatement(sql);
+        return stats != null ? new BudgetedStatement(statement, stats) : statement;
+    }
+
+    @Override
+    public boolean isAutoCommit() {
+        return delegate.isAutoCommit();
+    }
+
+    @Override
+    public ConnectionMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public IsolationLevel getTransactionIsolationLevel() {
+        return delegate.getTransactionIsolationLevel();
+    }
+
+    @Override
+    public Publisher<Void> releaseSavepoint(String name) {
+        return delegate.releaseSavepoint(name);
+    }
+
+    @Override
+    public Publisher<Void> rollbackTransaction() {
+        return delegate.rollbackTransaction();
+    }
+
+    @Override
+    public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+        return delegate.rollbackTransactionToSavepoint(name);
+    }
+
+    @Override
+    public Publisher<Void> setAutoCommit(boolean autoCommit) {
+        return delegate.setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+        return delegate.setLockWaitTimeout(timeout);
+    }
+
+    @Override
+    public Publisher<Void> setStatementTimeout(Duration timeout) {
+        return delegate.setStatementTimeout(timeout);
+    }
+
+    @Override
+    public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+        return delegate.setTransactionIsolationLevel(isolationLevel);
+    }
+
+    @Override
+    public Publisher<Boolean> validate(ValidationDepth depth) {
+        return delegate.validate(depth);
+    }
+
+    @Override
+    public Connection unwrap() {
+        return delegate;
+    }
+}
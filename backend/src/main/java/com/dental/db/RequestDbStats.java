@@ -0,0 +1,108 @@
+package com.dental.db;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-request database usage, carried in the Reactor Context by {@link QueryStatsWebFilter}
+ * and filled in by {@link QueryMetricsListener} for every statement the request runs and
+ * every row it reads, checked against the request's {@link DbBudget}.
+ */
+public class RequestDbStats {
+
+    private static final String CONTEXT_KEY = RequestDbStats.class.getName();
+
+    public static final String LIMIT_STATEMENTS = "statements";
+    public static final String LIMIT_ROWS = "rows";
+    public static final String LIMIT_DB_TIME = "db_time";
+
+    private final DbBudget budget;
+    private final AtomicInteger statements = new AtomicInteger();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder dbNanos = new LongAdder();
+
+    public RequestDbStats(DbBudget budget) {
+        this.budget = budget;
+    }
+
+    public static Context withStats(RequestDbStats stats) {
+        return Context.of(CONTEXT_KEY, stats);
+    }
+
+    public static RequestDbStats from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    public void recordStatement(long nanos) {
+        statements.incrementAndGet();
+        dbNanos.add(nanos);
+    }
+
+    public void recordRow() {
+        rows.increment();
+    }
+
+    /**
+     * @return the first limit this request has gone over, or null while within budget
+     */
+    public String exceededLimit() {
+        if (statements.get() > budget.maxStatements()) {
+            return LIMIT_STATEMENTS;
+        }
+        if (rows.sum() > budget.maxRows()) {
+            return LIMIT_ROWS;
+        }
+        if (dbNanos.sum() > budget.maxDbTime().toNanos()) {
+            return LIMIT_DB_TIME;
+        }
+        return null;
+    }
+
+    /**
+     * @return the error to refuse this request's next database access with, or null while
+     * it is within budget or its budget is not enforced
+     */
+    public DbBudgetExceededException enforcedBudgetError() {
+        if (!budget.enforce()) {
+            return null;
+        }
+        String limit = exceededLimit();
+        return limit != null ? exceeded(limit) : null;
+    }
+
+    /**
+     * @return the error to refuse this request's next statement with: its enforced budget
+     * is already exceeded, or one more statement would go over {@code maxStatements}
+     */
+    public DbBudgetExceededException nextStatementError() {
+        if (budget.enforce() && statements.get() >= budget.maxStatements()) {
+            return exceeded(LIMIT_STATEMENTS);
+        }
+        return enforcedBudgetError();
+    }
+
+    private DbBudgetExceededException exceeded(String limit) {
+        return new DbBudgetExceededException(limit, String.format(
+                "Request exceeded its database budget (%s): %d statements, %d rows, %.0fms",
+                limit, getStatements(), getRows(), getDbMillis()));
+    }
+
+    public DbBudget getBudget() {
+        return budget;
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public double getDbMillis() {
+        return dbNanos.sum() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.dental.db;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which a request must be answered, carried in the Reactor Context by
+ * {@link RequestDeadlineWebFilter}. Connection acquisition is bounded by what is left of it,
+ * and once it passes the request's running statements are cancelled in Postgres.
+ */
+public final class RequestDeadline {
+
+    private static final String CONTEXT_KEY = RequestDeadline.class.getName();
+
+    private final Duration timeout;
+    private final long deadlineNanos;
+
+    private RequestDeadline(Duration timeout) {
+        this.timeout = timeout;
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    public static RequestDeadline after(Duration timeout) {
+        return new RequestDeadline(timeout);
+    }
+
+    public static Context with(RequestDeadline deadline) {
+        return Context.of(CONTEXT_KEY, deadline);
+    }
+
+    public static RequestDeadline from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - deadlineNanos >= 0;
+    }
+}
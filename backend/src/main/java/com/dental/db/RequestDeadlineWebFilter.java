@@ -0,0 +1,111 @@
+package com.dental.db;
+
+import com.dental.config.DeadlineProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gives every API request a {@link RequestDeadline} (X-Request-Timeout header, else the
+ * route's configured timeout) and puts it in the Reactor Context. When it passes, the
+ * chain is cancelled and fails with {@link DeadlineExceededException} (504); when the
+ * chain is cancelled, whether by the deadline or by the client going away, the request's
+ * statements still running are cancelled in Postgres so their connections go back to the
+ * pool. Runs inside {@link QueryStatsWebFilter}, whose {@link RequestDbStats} identifies
+ * the request's connections.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+public class RequestDeadlineWebFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestDeadlineWebFilter.class);
+
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final DeadlineProperties properties;
+    private final ConnectionRequestRegistry connectionRequestRegistry;
+    private final Map<PathPattern, Duration> routeTimeouts = new LinkedHashMap<>();
+    private final Counter exceeded;
+    private final Counter statementsCancelled;
+
+    public RequestDeadlineWebFilter(DeadlineProperties properties,
+                                    ConnectionRequestRegistry connectionRequestRegistry,
+                                    MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.connectionRequestRegistry = connectionRequestRegistry;
+        properties.getRoutes().forEach((pattern, timeout) ->
+                routeTimeouts.put(PathPatternParser.defaultInstance.parse(pattern), timeout));
+        this.exceeded = Counter.builder("dental.deadline.exceeded")
+                .description("Requests that ran past their deadline")
+                .register(meterRegistry);
+        this.statementsCancelled = Counter.builder("db.statements.cancelled")
+                .description("Statements cancelled in Postgres because their request timed out or was abandoned")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!properties.isEnabled() || !path.startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        Duration timeout = timeoutFor(exchange);
+        RequestDeadline deadline = RequestDeadline.after(timeout);
+        return Mono.deferContextual(context -> {
+            RequestDbStats stats = RequestDbStats.from(context);
+            return chain.filter(exchange)
+                    .timeout(timeout, Mono.error(() -> {
+                        exceeded.increment();
+                        log.warn("Request deadline of {}ms exceeded: {} {}",
+                                timeout.toMillis(), exchange.getRequest().getMethod(), path);
+                        return new DeadlineExceededException("Request deadline of " + timeout.toMillis() + "ms exceeded");
+                    }))
+                    .doOnError(DeadlineExceededException.class, e -> cancelStatements(stats))
+                    .doOnCancel(() -> cancelStatements(stats));
+        }).contextWrite(RequestDeadline.with(deadline));
+    }
+
+    private void cancelStatements(RequestDbStats stats) {
+        int cancelled = connectionRequestRegistry.cancelRunning(stats);
+        if (cancelled > 0) {
+            statementsCancelled.increment(cancelled);
+        }
+    }
+
+    private Duration timeoutFor(ServerWebExchange exchange) {
+        String header = exchange.getRequest().getHeaders().getFirst(REQUEST_TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                long millis = Long.parseLong(header.trim());
+                if (millis > 0) {
+                    Duration requested = Duration.ofMillis(millis);
+                    return requested.compareTo(properties.getMaxTimeout()) < 0 ? requested : properties.getMaxTimeout();
+                }
+            } catch (NumberFormatException e) {
+                // Ignore a malformed header and fall back to the route default
+            }
+        }
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (Map.Entry<PathPattern, Duration> route : routeTimeouts.entrySet()) {
+            if (route.getKey().matches(path)) {
+                return route.getValue();
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+}
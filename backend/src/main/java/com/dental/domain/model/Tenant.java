@@ -13,6 +13,7 @@ public class Tenant {
     private String contactEmail;
     private String phone;
     private Boolean active;
+    private String plan;
     private LocalDateTime createdAt;
 
     public Tenant() {
@@ -67,6 +68,14 @@ public class Tenant {
         this.active = active;
     }
 
+    public String getPlan() {
+        return plan;
+    }
+
+    public void setPlan(String plan) {
+        this.plan = plan;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
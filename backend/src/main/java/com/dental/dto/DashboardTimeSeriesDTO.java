@@ -0,0 +1,41 @@
+package com.dental.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class DashboardTimeSeriesDTO {
+    private String metric;
+    private String granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private List<TimeSeriesPointDTO> points;
+
+    public DashboardTimeSeriesDTO(String metric, String granularity, LocalDate from, LocalDate to,
+                                  List<TimeSeriesPointDTO> points) {
+        this.metric = metric;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.points = points;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public List<TimeSeriesPointDTO> getPoints() {
+        return points;
+    }
+}
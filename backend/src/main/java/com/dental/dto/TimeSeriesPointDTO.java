@@ -0,0 +1,32 @@
+package com.dental.dto;
+
+import java.time.LocalDate;
+
+public class TimeSeriesPointDTO {
+    private LocalDate date;
+    private Long value;
+
+    public TimeSeriesPointDTO() {
+    }
+
+    public TimeSeriesPointDTO(LocalDate date, Long value) {
+        this.date = date;
+        this.value = value;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Long getValue() {
+        return value;
+    }
+
+    public void setValue(Long value) {
+        this.value = value;
+    }
+}
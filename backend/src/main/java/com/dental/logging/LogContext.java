@@ -0,0 +1,33 @@
+package com.dental.logging;
+
+import io.micrometer.context.ContextRegistry;
+import org.slf4j.MDC;
+
+/**
+ * Bridges Reactor Context entries to the logging MDC. With
+ * {@code spring.reactor.context-propagation=auto}, every operator restores these
+ * keys on whatever thread it runs, so log lines carry the request and tenant
+ * without passing them around.
+ */
+public final class LogContext {
+
+    public static final String REQUEST_ID = "requestId";
+
+    /** Same key TenantContext stores the tenant UUID under. */
+    public static final String TENANT_ID = "tenantId";
+
+    private LogContext() {
+    }
+
+    public static void registerMdcAccessors() {
+        register(REQUEST_ID);
+        register(TENANT_ID);
+    }
+
+    private static void register(String key) {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(key,
+                () -> MDC.get(key),
+                value -> MDC.put(key, String.valueOf(value)),
+                () -> MDC.remove(key));
+    }
+}
@@ -0,0 +1,83 @@
+package com.dental.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter that samples and rate-limits chatty loggers before an event is
+ * even built. Configured per logger prefix in logback-spring.xml:
+ *
+ * <pre>
+ * &lt;turboFilter class="com.dental.logging.RateLimitingTurboFilter"&gt;
+ *   &lt;logger&gt;com.dental.security.JwtAuthenticationFilter&lt;/logger&gt;
+ *   &lt;level&gt;WARN&lt;/level&gt;            &lt;!-- events at or below this level are limited --&gt;
+ *   &lt;maxPerSecond&gt;5&lt;/maxPerSecond&gt;
+ *   &lt;sampleRate&gt;1.0&lt;/sampleRate&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ *
+ * ERROR events are never dropped. Dropped events are counted in {@link #getDropped()}.
+ */
+public class RateLimitingTurboFilter extends TurboFilter {
+
+    private String logger = "";
+    private Level level = Level.INFO;
+    private int maxPerSecond = Integer.MAX_VALUE;
+    private double sampleRate = 1.0;
+
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger emittedThisSecond = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger log, Level eventLevel, String format, Object[] params, Throwable t) {
+        // format == null means an isXxxEnabled() check, not an event
+        if (format == null || eventLevel.isGreaterOrEqual(Level.ERROR) || !eventLevel.isGreaterOrEqual(log.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (level.toInt() < eventLevel.toInt() || !log.getName().startsWith(logger)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            dropped.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        long seen = currentSecond.get();
+        if (seen != second && currentSecond.compareAndSet(seen, second)) {
+            emittedThisSecond.set(0);
+        }
+        if (emittedThisSecond.incrementAndGet() > maxPerSecond) {
+            dropped.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
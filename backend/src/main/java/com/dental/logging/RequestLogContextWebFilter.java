@@ -0,0 +1,33 @@
+package com.dental.logging;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Puts a request id into the Reactor Context (and so the MDC) for every request,
+ * reusing the caller's X-Request-Id when present and echoing it in the response.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLogContextWebFilter implements WebFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String requestId = exchange.getRequest().getHeaders().getFirst(REQUEST_ID_HEADER);
+        if (!StringUtils.hasText(requestId) || requestId.length() > 64) {
+            requestId = exchange.getRequest().getId();
+        }
+        exchange.getResponse().getHeaders().set(REQUEST_ID_HEADER, requestId);
+        return chain.filter(exchange)
+                .contextWrite(Context.of(LogContext.REQUEST_ID, requestId));
+    }
+}
@@ -0,0 +1,29 @@
+package com.dental.metrics;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationConvention;
+
+import java.util.regex.Pattern;
+
+@Configuration
+public class MetricsConfig {
+
+    private static final Pattern UUID_SEGMENT =
+            Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention(TenantTagPolicy tenantTagPolicy) {
+        return new TenantServerRequestObservationConvention(tenantTagPolicy);
+    }
+
+    /**
+     * Enables Reactor Netty transport metrics (connections, data sent/received and
+     * event-loop pending tasks). Path ids are collapsed so the uri tag stays bounded.
+     */
+    @Bean
+    public NettyServerCustomizer nettyMetricsCustomizer() {
+        return httpServer -> httpServer.metrics(true, uri -> UUID_SEGMENT.matcher(uri).replaceAll("{id}"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.dental.metrics;
+
+import com.dental.security.TenantContext;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.reactive.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+
+import java.util.UUID;
+
+/**
+ * Adds a bounded "tenant" tag to http.server.requests so latency and throughput can be
+ * broken down by the tenants that actually drive load.
+ */
+public class TenantServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private final TenantTagPolicy tenantTagPolicy;
+
+    public TenantServerRequestObservationConvention(TenantTagPolicy tenantTagPolicy) {
+        this.tenantTagPolicy = tenantTagPolicy;
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object tenantId = context.getAttributes().get(TenantContext.TENANT_ID_ATTRIBUTE);
+        String tenant = tenantTagPolicy.tagFor(tenantId instanceof UUID id ? id : null);
+        return super.getLowCardinalityKeyValues(context).and(KeyValue.of(TenantTagPolicy.TAG, tenant));
+    }
+}
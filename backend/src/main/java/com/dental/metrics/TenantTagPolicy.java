@@ -0,0 +1,78 @@
+package com.dental.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the tenant tag on metrics bounded. Only the N busiest tenants of the last
+ * window get their own tag value; everyone else is reported as "other".
+ * Micrometer never drops a meter by itself, so at each window roll the meters tagged
+ * with a tenant that is no longer in the top N are removed from the registry; the
+ * number of live tenant series stays at N per meter name.
+ */
+@Component
+public class TenantTagPolicy {
+
+    public static final String TAG = "tenant";
+    public static final String NO_TENANT = "none";
+    public static final String OTHER_TENANTS = "other";
+
+    private final int topN;
+    private final MeterRegistry meterRegistry;
+    private final Map<UUID, LongAdder> windowCounts = new ConcurrentHashMap<>();
+    private volatile Set<UUID> topTenants = Set.of();
+
+    public TenantTagPolicy(@Value("${dental.metrics.tenant-tags.top-n:20}") int topN, MeterRegistry meterRegistry) {
+        this.topN = topN;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public String tagFor(UUID tenantId) {
+        if (tenantId == null) {
+            return NO_TENANT;
+        }
+        windowCounts.computeIfAbsent(tenantId, id -> new LongAdder()).increment();
+        return topTenants.contains(tenantId) ? tenantId.toString() : OTHER_TENANTS;
+    }
+
+    @Scheduled(fixedDelayString = "${dental.metrics.tenant-tags.window:PT1M}")
+    public void rollWindow() {
+        Map<UUID, Long> snapshot = windowCounts.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sumThenReset()));
+        windowCounts.entrySet().removeIf(e -> e.getValue().sum() == 0);
+        topTenants = snapshot.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .sorted(Map.Entry.<UUID, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(topN)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+        removeEvictedTenantMeters();
+    }
+
+    /**
+     * Sweeps every tenant-tagged meter rather than only last window's top N, so a meter
+     * re-registered by a request that was tagged just before the roll is removed too.
+     */
+    private void removeEvictedTenantMeters() {
+        Set<String> kept = topTenants.stream().map(UUID::toString).collect(Collectors.toSet());
+        List<Meter> evicted = meterRegistry.getMeters().stream()
+                .filter(meter -> {
+                    String tenant = meter.getId().getTag(TAG);
+                    return tenant != null && !NO_TENANT.equals(tenant) && !OTHER_TENANTS.equals(tenant) && !kept.contains(tenant);
+                })
+                .toList();
+        evicted.forEach(meterRegistry::remove);
+    }
+}
@@ -1,6 +1,8 @@
 package com.dental.repository;
 
+import com.dental.db.ReplicaRead;
 import com.dental.domain.model.Appointment;
+import com.dental.dto.AppointmentDTO;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -12,7 +14,16 @@ import java.util.UUID;
 @Repository
 public interface AppointmentRepository extends ReactiveCrudRepository<Appointment, UUID> {
     
-    Flux<Appointment> findByTenantId(UUID tenantId);
+    String WITH_NAMES = "SELECT a.id, a.patient_id, COALESCE(p.first_name || ' ' || p.last_name, '') AS patient_name, " +
+            "a.dentist_id, COALESCE(u.first_name || ' ' || u.last_name, '') AS dentist_name, " +
+            "a.start_time, a.duration_minutes, a.status, a.notes " +
+            "FROM appointments a " +
+            "LEFT JOIN patients p ON p.id = a.patient_id " +
+            "LEFT JOIN users u ON u.id = a.dentist_id ";
+    
+    // appointments is partitioned by month on start_time: every list query is bounded by
+    // start_time so Postgres only scans the months it asks for. By-id lookups cannot be
+    // pruned and probe each month's primary key index.
     
     @Query("SELECT * FROM appointments WHERE id = :id AND tenant_id = :tenantId")
     Mono<Appointment> findByIdAndTenantId(UUID id, UUID tenantId);
@@ -22,4 +33,16 @@ public interface AppointmentRepository extends ReactiveCrudRepository<Appointmen
     
     @Query("SELECT * FROM appointments WHERE dentist_id = :dentistId AND start_time BETWEEN :startDate AND :endDate")
     Flux<Appointment> findByDentistIdAndDateRange(UUID dentistId, LocalDateTime startDate, LocalDateTime endDate);
+    
+    @ReplicaRead
+    @Query(WITH_NAMES + "WHERE a.tenant_id = :tenantId AND a.start_time >= :from")
+    Flux<AppointmentDTO> findAllWithNamesByTenantIdSince(UUID tenantId, LocalDateTime from);
+    
+    @ReplicaRead
+    @Query(WITH_NAMES + "WHERE a.tenant_id = :tenantId AND a.start_time BETWEEN :startDate AND :endDate")
+    Flux<AppointmentDTO> findWithNamesByTenantIdAndDateRange(UUID tenantId, LocalDateTime startDate, LocalDateTime endDate);
+    
+    @ReplicaRead
+    @Query(WITH_NAMES + "WHERE a.id = :id AND a.tenant_id = :tenantId")
+    Mono<AppointmentDTO> findWithNamesByIdAndTenantId(UUID id, UUID tenantId);
 }
@@ -1,5 +1,6 @@
 package com.dental.repository;
 
+import com.dental.db.ReplicaRead;
 import com.dental.domain.model.Staff;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -11,6 +12,7 @@ import java.util.UUID;
 @Repository
 public interface StaffRepository extends ReactiveCrudRepository<Staff, UUID> {
     
+    @ReplicaRead
     @Query("SELECT * FROM staff WHERE tenant_id = :tenantId AND deleted_at IS NULL")
     Flux<Staff> findByTenantIdAndNotDeleted(UUID tenantId);
     
@@ -1,6 +1,9 @@
 package com.dental.repository;
 
+import com.dental.db.ReplicaRead;
 import com.dental.domain.model.User;
+import com.dental.dto.UserDTO;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -13,4 +16,17 @@ public interface UserRepository extends ReactiveCrudRepository<User, UUID> {
     Flux<User> findByTenantId(UUID tenantId);
     Mono<User> findByIdAndTenantId(UUID id, UUID tenantId);
     Mono<User> findByEmailAndTenantId(String email, UUID tenantId);
+    
+    @ReplicaRead
+    @Query("SELECT u.id, u.tenant_id, u.staff_id, s.first_name || ' ' || s.last_name AS staff_name, " +
+           "u.email, u.first_name, u.last_name, u.role, u.active, u.created_at " +
+           "FROM users u LEFT JOIN staff s ON s.id = u.staff_id " +
+           "WHERE u.tenant_id = :tenantId")
+    Flux<UserDTO> findAllWithStaffNameByTenantId(UUID tenantId);
+    
+    @Query("SELECT u.id, u.tenant_id, u.staff_id, s.first_name || ' ' || s.last_name AS staff_name, " +
+           "u.email, u.first_name, u.last_name, u.role, u.active, u.created_at " +
+           "FROM users u LEFT JOIN staff s ON s.id = u.staff_id " +
+           "WHERE u.id = :id AND u.tenant_id = :tenantId")
+    Mono<UserDTO> findWithStaffNameByIdAndTenantId(UUID id, UUID tenantId);
 }
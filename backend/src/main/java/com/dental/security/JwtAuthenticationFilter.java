@@ -73,6 +73,8 @@ public class JwtAuthenticationFilter implements WebFilter {
                     List.of(new SimpleGrantedAuthority("ROLE_" + role))
                 );
             
+            exchange.getAttributes().put(TenantContext.TENANT_ID_ATTRIBUTE, tenantId);
+            
             // Continue with both security context and tenant context
             return chain.filter(exchange)
                 .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
@@ -2,6 +2,7 @@ package com.dental.security;
 
 import reactor.core.publisher.Mono;
 import reactor.util.context.Context;
+import reactor.util.context.ContextView;
 
 import java.util.UUID;
 
@@ -13,6 +14,12 @@ public class TenantContext {
     
     private static final String TENANT_ID_KEY = "tenantId";
     
+    /**
+     * Exchange attribute holding the tenantId, for code that runs outside the
+     * reactive chain (e.g. metrics conventions).
+     */
+    public static final String TENANT_ID_ATTRIBUTE = TenantContext.class.getName() + ".tenantId";
+    
     /**
      * Retrieve the current tenant ID from reactive context.
      * 
@@ -27,6 +34,13 @@ public class TenantContext {
         });
     }
     
+    /**
+     * The tenantId in the given context, or null, for code that must not fail without one.
+     */
+    public static UUID find(ContextView ctx) {
+        return ctx.getOrDefault(TENANT_ID_KEY, null);
+    }
+    
     /**
      * Create a context with the given tenantId.
      * Used by security filter to initialize tenant context.
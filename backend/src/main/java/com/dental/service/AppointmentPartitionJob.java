@@ -0,0 +1,180 @@
+package com.dental.service;
+
+import com.dental.config.AppointmentPartitionProperties;
+import com.dental.config.ShardingProperties;
+import com.dental.sharding.ShardRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the monthly partitions of appointments rolling on each shard: pre-creates the
+ * next {@code monthsAhead} months and moves months past the retention out of the table
+ * (see the appointments partition functions in init.sql).
+ * <p>
+ * Old months are detached with {@code DETACH PARTITION ... CONCURRENTLY}, which only takes
+ * a SHARE UPDATE EXCLUSIVE lock on appointments, so reads and writes of the hot months go
+ * on while it runs. Postgres refuses it inside a transaction block or a function, so it is
+ * sent as a statement of its own; the copy to appointments_archive and the drop follow in a
+ * separate transaction. A detach interrupted half-way is finished with {@code FINALIZE},
+ * and a month detached but not yet archived is picked up on the next run. The archiving
+ * holds a session advisory lock on its connection, shared with the creation, so several
+ * nodes can run the job.
+ */
+@Component
+public class AppointmentPartitionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentPartitionJob.class);
+
+    private static final String CREATE_SQL = "SELECT create_appointments_partitions(:from, :to) AS created";
+
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('appointments_partitions'))";
+
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('appointments_partitions'))";
+
+    private static final String TO_ARCHIVE_SQL =
+            "SELECT partition_name, attached, detach_pending FROM appointments_partitions_to_archive($1, $2)";
+
+    private static final String DETACH_SQL = "ALTER TABLE appointments DETACH PARTITION \"%s\" CONCURRENTLY";
+
+    private static final String FINALIZE_SQL = "ALTER TABLE appointments DETACH PARTITION \"%s\" FINALIZE";
+
+    private static final String ARCHIVE_SQL = "SELECT archive_detached_appointments_partition($1)";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM \"%s\"";
+
+    private final DatabaseClient databaseClient;
+    private final AppointmentPartitionProperties properties;
+    private final ShardingProperties shardingProperties;
+    private final Counter created;
+    private final Counter archived;
+    private final Counter archivedRows;
+
+    public AppointmentPartitionJob(DatabaseClient databaseClient, AppointmentPartitionProperties properties,
+                                   ShardingProperties shardingProperties, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.properties = properties;
+        this.shardingProperties = shardingProperties;
+        this.created = Counter.builder("dental.appointments.partitions.created")
+                .description("Monthly appointment partitions created ahead of time")
+                .register(meterRegistry);
+        this.archived = Counter.builder("dental.appointments.partitions.archived")
+                .description("Monthly appointment partitions moved out of the hot table")
+                .register(meterRegistry);
+        this.archivedRows = Counter.builder("dental.appointments.partitions.archived.rows")
+                .description("Appointments moved out of the hot table with their partition")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${dental.appointments.partitions.initial-delay:PT10S}",
+               fixedDelayString = "${dental.appointments.partitions.interval:PT6H}")
+    public Mono<Void> maintain() {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(shardingProperties.shardNames())
+                .concatMap(this::maintain)
+                .then();
+    }
+
+    private Mono<Void> maintain(String shard) {
+        // Creating first: a failed archive must not leave next month without a partition
+        return ShardRouting.on(shard, createAhead(shard).then(archiveOld(shard)))
+                .onErrorResume(e -> {
+                    log.error("Appointment partition maintenance failed on shard {}: {}", shard, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> createAhead(String shard) {
+        return databaseClient.sql(CREATE_SQL)
+                .bind("from", properties.firstMonth())
+                .bind("to", properties.horizon())
+                .map(row -> row.get("created", Integer.class))
+                .one()
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        created.increment(count);
+                        log.info("Created {} appointment partitions on shard {}", count, shard);
+                    }
+                })
+                .then();
+    }
+
+    private Mono<Void> archiveOld(String shard) {
+        // One connection, outside any transaction: it holds the session lock and runs the DETACH
+        return databaseClient.inConnection(connection -> first(connection, LOCK_SQL, Boolean.class)
+                .flatMap(locked -> {
+                    if (!locked) {
+                        log.debug("Appointment partitions on shard {} are being archived by another node", shard);
+                        return Mono.empty();
+                    }
+                    return archiveOld(connection, shard)
+                            .onErrorResume(e -> first(connection, UNLOCK_SQL, Boolean.class).then(Mono.error(e)))
+                            .then(first(connection, UNLOCK_SQL, Boolean.class));
+                }))
+                .then();
+    }
+
+    private Mono<Void> archiveOld(Connection connection, String shard) {
+        boolean archive = properties.isArchive();
+        return Flux.from(connection.createStatement(TO_ARCHIVE_SQL)
+                        .bind("$1", properties.firstMonth())
+                        .bind("$2", archive)
+                        .execute())
+                .flatMap(result -> result.map((row, metadata) -> new Candidate(
+                        row.get("partition_name", String.class),
+                        Boolean.TRUE.equals(row.get("attached", Boolean.class)),
+                        Boolean.TRUE.equals(row.get("detach_pending", Boolean.class)))))
+                .collectList()
+                .flatMapMany(Flux::fromIterable)
+                .concatMap(candidate -> detach(connection, candidate)
+                        .then(archive
+                                ? first(connection, ARCHIVE_SQL, candidate.partition(), Long.class)
+                                : first(connection, COUNT_SQL.formatted(candidate.partition()), Long.class))
+                        .map(rows -> new Archived(candidate.partition(), rows)))
+                .doOnNext(moved -> {
+                    archived.increment();
+                    archivedRows.increment(moved.rows());
+                    log.info("{} appointment partition {} ({} rows) on shard {}",
+                            archive ? "Archived" : "Detached", moved.partition(), moved.rows(), shard);
+                })
+                .then();
+    }
+
+    private Mono<Void> detach(Connection connection, Candidate candidate) {
+        if (!candidate.attached()) {
+            return Mono.empty();
+        }
+        String sql = (candidate.detachPending() ? FINALIZE_SQL : DETACH_SQL).formatted(candidate.partition());
+        return Flux.defer(() -> connection.createStatement(sql).execute())
+                .flatMap(Result::getRowsUpdated)
+                .then();
+    }
+
+    private static <T> Mono<T> first(Connection connection, String sql, Class<T> type) {
+        return Flux.defer(() -> connection.createStatement(sql).execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, type)))
+                .next();
+    }
+
+    private static <T> Mono<T> first(Connection connection, String sql, Object parameter, Class<T> type) {
+        return Flux.defer(() -> connection.createStatement(sql).bind("$1", parameter).execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, type)))
+                .next();
+    }
+
+    private record Candidate(String partition, boolean attached, boolean detachPending) {
+    }
+
+    private record Archived(String partition, long rows) {
+    }
+}
@@ -1,48 +1,69 @@
 package com.dental.service;
 
+import com.dental.cache.SingleFlight;
+import com.dental.cache.TenantDataVersions;
+import com.dental.config.AppointmentPartitionProperties;
 import com.dental.domain.model.Appointment;
-import com.dental.domain.model.Patient;
-import com.dental.domain.model.User;
 import com.dental.dto.AppointmentDTO;
 import com.dental.repository.AppointmentRepository;
-import com.dental.repository.PatientRepository;
-import com.dental.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @Service
 public class AppointmentService {
     
     private final AppointmentRepository appointmentRepository;
-    private final PatientRepository patientRepository;
-    private final UserRepository userRepository;
+    private final TenantStatsService tenantStatsService;
+    private final SingleFlight singleFlight;
+    private final TenantDataVersions tenantDataVersions;
+    private final AppointmentPartitionProperties partitionProperties;
+    private final Duration microTtl;
     
-    public AppointmentService(AppointmentRepository appointmentRepository, PatientRepository patientRepository, UserRepository userRepository) {
+    public AppointmentService(AppointmentRepository appointmentRepository,
+                              TenantStatsService tenantStatsService,
+                              SingleFlight singleFlight,
+                              TenantDataVersions tenantDataVersions,
+                              AppointmentPartitionProperties partitionProperties,
+                              @Value("${dental.singleflight.micro-ttl:500ms}") Duration microTtl) {
         this.appointmentRepository = appointmentRepository;
-        this.patientRepository = patientRepository;
-        this.userRepository = userRepository;
+        this.tenantStatsService = tenantStatsService;
+        this.singleFlight = singleFlight;
+        this.tenantDataVersions = tenantDataVersions;
+        this.partitionProperties = partitionProperties;
+        this.microTtl = microTtl;
     }
     
     public Flux<AppointmentDTO> getAllAppointments(UUID tenantId) {
-        return appointmentRepository.findByTenantId(tenantId)
-                .flatMap(this::toDTOWithRelations);
+        // Only months still in the hot table, so the query can skip every other partition
+        return appointmentRepository.findAllWithNamesByTenantIdSince(tenantId, partitionProperties.hotFrom());
     }
     
     public Flux<AppointmentDTO> getAppointmentsByDateRange(UUID tenantId, LocalDateTime startDate, LocalDateTime endDate) {
-        return appointmentRepository.findByTenantIdAndDateRange(tenantId, startDate, endDate)
-                .flatMap(this::toDTOWithRelations);
+        // The calendar view (usually "today") is opened by the whole clinic at once; coalesce identical reads
+        return singleFlight.execute(tenantId, "appointments.range", List.of(startDate, endDate), microTtl,
+                        () -> appointmentRepository.findWithNamesByTenantIdAndDateRange(tenantId, startDate, endDate)
+                                .collectList())
+                .flatMapMany(Flux::fromIterable);
     }
     
     public Mono<AppointmentDTO> getAppointmentById(UUID id, UUID tenantId) {
-        return appointmentRepository.findByIdAndTenantId(id, tenantId)
-                .flatMap(this::toDTOWithRelations);
+        return appointmentRepository.findWithNamesByIdAndTenantId(id, tenantId);
     }
     
+    @Transactional
     public Mono<AppointmentDTO> createAppointment(UUID tenantId, AppointmentDTO dto) {
+        if (!isBookable(dto.getStartTime())) {
+            return Mono.error(notBookable(dto.getStartTime()));
+        }
         Appointment appointment = new Appointment();
         appointment.setTenantId(tenantId);
         appointment.setPatientId(dto.getPatientId());
@@ -55,13 +76,22 @@ public class AppointmentService {
         appointment.setUpdatedAt(LocalDateTime.now());
         
         return appointmentRepository.save(appointment)
-                .flatMap(this::toDTOWithRelations);
+                .flatMap(saved -> tenantStatsService.appointmentAdded(tenantId, saved.getStatus(), saved.getStartTime())
+                        .then(tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.APPOINTMENTS))
+                        .thenReturn(saved))
+                .flatMap(saved -> appointmentRepository.findWithNamesByIdAndTenantId(saved.getId(), tenantId));
     }
     
+    @Transactional
     public Mono<AppointmentDTO> updateAppointment(UUID id, UUID tenantId, AppointmentDTO dto) {
+        if (!isBookable(dto.getStartTime())) {
+            return Mono.error(notBookable(dto.getStartTime()));
+        }
         return appointmentRepository.findByIdAndTenantId(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Appointment not found")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Appointment not found")))
                 .flatMap(appointment -> {
+                    String oldStatus = appointment.getStatus();
+                    LocalDateTime oldStartTime = appointment.getStartTime();
                     appointment.setPatientId(dto.getPatientId());
                     appointment.setDentistId(dto.getDentistId());
                     appointment.setStartTime(dto.getStartTime());
@@ -69,37 +99,33 @@ public class AppointmentService {
                     appointment.setStatus(dto.getStatus());
                     appointment.setNotes(dto.getNotes());
                     appointment.setUpdatedAt(LocalDateTime.now());
-                    return appointmentRepository.save(appointment);
+                    return appointmentRepository.save(appointment)
+                            .flatMap(saved -> tenantStatsService.appointmentMoved(tenantId,
+                                            oldStatus, oldStartTime, saved.getStatus(), saved.getStartTime())
+                                    .then(tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.APPOINTMENTS))
+                                    .thenReturn(saved));
                 })
-                .flatMap(this::toDTOWithRelations);
+                .flatMap(saved -> appointmentRepository.findWithNamesByIdAndTenantId(saved.getId(), tenantId));
     }
     
+    @Transactional
     public Mono<Void> deleteAppointment(UUID id, UUID tenantId) {
         return appointmentRepository.findByIdAndTenantId(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Appointment not found")))
-                .flatMap(appointmentRepository::delete);
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Appointment not found")))
+                .flatMap(appointment -> appointmentRepository.delete(appointment)
+                        .then(tenantStatsService.appointmentRemoved(tenantId, appointment.getStatus(), appointment.getStartTime()))
+                        .then(tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.APPOINTMENTS)));
     }
-    
-    private Mono<AppointmentDTO> toDTOWithRelations(Appointment appointment) {
-        Mono<Patient> patientMono = patientRepository.findById(appointment.getPatientId()).defaultIfEmpty(new Patient());
-        Mono<User> dentistMono = userRepository.findById(appointment.getDentistId()).defaultIfEmpty(new User());
-        
-        return Mono.zip(patientMono, dentistMono)
-                .map(tuple -> {
-                    Patient patient = tuple.getT1();
-                    User dentist = tuple.getT2();
-                    
-                    AppointmentDTO dto = new AppointmentDTO();
-                    dto.setId(appointment.getId());
-                    dto.setPatientId(appointment.getPatientId());
-                    dto.setPatientName(patient.getFirstName() != null ? patient.getFirstName() + " " + patient.getLastName() : "");
-                    dto.setDentistId(appointment.getDentistId());
-                    dto.setDentistName(dentist.getFirstName() != null ? dentist.getFirstName() + " " + dentist.getLastName() : "");
-                    dto.setStartTime(appointment.getStartTime());
-                    dto.setDurationMinutes(appointment.getDurationMinutes());
-                    dto.setStatus(appointment.getStatus());
-                    dto.setNotes(appointment.getNotes());
-                    return dto;
-                });
+
+    // appointments has no default partition: a start_time outside the partitioned months cannot be stored
+    private boolean isBookable(LocalDateTime startTime) {
+        return startTime != null
+                && !startTime.isBefore(partitionProperties.hotFrom())
+                && startTime.isBefore(partitionProperties.bookableUntil());
+    }
+
+    private IllegalArgumentException notBookable(LocalDateTime startTime) {
+        return new IllegalArgumentException("Appointments must start between " + partitionProperties.hotFrom()
+                + " and " + partitionProperties.bookableUntil() + ", got " + startTime);
     }
 }
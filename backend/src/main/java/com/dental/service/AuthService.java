@@ -1,11 +1,14 @@
 package com.dental.service;
 
+import com.dental.config.ShardingProperties;
 import com.dental.domain.model.User;
 import com.dental.dto.LoginRequest;
 import com.dental.dto.LoginResponse;
 import com.dental.repository.TenantRepository;
 import com.dental.repository.UserRepository;
 import com.dental.security.JwtUtil;
+import com.dental.sharding.ShardMap;
+import com.dental.sharding.ShardRouting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,23 +24,29 @@ public class AuthService {
     private final TenantRepository tenantRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final ShardingProperties shardingProperties;
+    private final ShardMap shardMap;
     
-    public AuthService(UserRepository userRepository, TenantRepository tenantRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, TenantRepository tenantRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                       ShardingProperties shardingProperties, ShardMap shardMap) {
         this.userRepository = userRepository;
         this.tenantRepository = tenantRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.shardingProperties = shardingProperties;
+        this.shardMap = shardMap;
     }
     
     public Mono<LoginResponse> login(LoginRequest request) {
-        log.info("Login attempt for email: {}", request.getEmail());
+        log.debug("Login attempt for email: {}", request.getEmail());
         
-        return userRepository.findByEmail(request.getEmail())
-                .doOnNext(user -> log.info("User found: {}", user.getEmail()))
-                .doOnNext(user -> log.info("Password match: {}", passwordEncoder.matches(request.getPassword(), user.getPassword())))
+        // The user is not known to belong to any tenant yet: look on every shard, keeping only
+        // the copy on the shard its tenant is placed on (a move leaves one elsewhere for a while)
+        return ShardRouting.firstOf(shardingProperties.shardNames(), shard -> userRepository.findByEmail(request.getEmail())
+                        .filter(user -> shard.equals(shardMap.shardOf(user.getTenantId()))))
                 .filter(user -> passwordEncoder.matches(request.getPassword(), user.getPassword()))
                 .switchIfEmpty(Mono.defer(() -> {
-                    log.error("Invalid credentials for email: {}", request.getEmail());
+                    log.warn("Invalid credentials for email: {}", request.getEmail());
                     return Mono.error(new RuntimeException("Invalid credentials"));
                 }))
                 .flatMap(user -> {
@@ -0,0 +1,99 @@
+package com.dental.service;
+
+import com.dental.config.ShardingProperties;
+import com.dental.sharding.ShardRouting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Incrementally refreshes daily_tenant_rollup. Write paths mark the (tenant, day) pairs
+ * they touch in daily_tenant_rollup_dirty; each run claims those rows and recomputes only
+ * those days, so cost is proportional to what changed since the previous run. Runs on
+ * each shard.
+ */
+@Component
+public class DailyRollupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyRollupJob.class);
+
+    // Claiming waits for writers still holding a dirty row (see TenantStatsService), and the
+    // recount runs as a later statement of the same transaction, so its snapshot includes
+    // every write that marked a claimed day. Days marked after the claim stay dirty.
+    private static final String CLAIM_SQL =
+            "DELETE FROM daily_tenant_rollup_dirty RETURNING tenant_id, stat_date";
+
+    private static final String ROLLUP_SQL =
+            "WITH dirty AS (SELECT * FROM unnest(CAST(:tenantIds AS UUID[]), CAST(:days AS DATE[])) " +
+            "AS d (tenant_id, stat_date)) " +
+            "INSERT INTO daily_tenant_rollup " +
+            "(tenant_id, stat_date, appointments, cancelled_appointments, new_patients, updated_at) " +
+            "SELECT d.tenant_id, d.stat_date, " +
+            "(SELECT COUNT(*) FROM appointments a WHERE a.tenant_id = d.tenant_id " +
+            "AND a.start_time >= d.stat_date AND a.start_time < d.stat_date + 1), " +
+            "(SELECT COUNT(*) FROM appointments a WHERE a.tenant_id = d.tenant_id " +
+            "AND a.start_time >= d.stat_date AND a.start_time < d.stat_date + 1 AND a.status = 'CANCELLED'), " +
+            "(SELECT COUNT(*) FROM patients p WHERE p.tenant_id = d.tenant_id " +
+            "AND p.created_at >= d.stat_date AND p.created_at < d.stat_date + 1), " +
+            "NOW() " +
+            "FROM dirty d " +
+            "ON CONFLICT (tenant_id, stat_date) DO UPDATE SET " +
+            "appointments = EXCLUDED.appointments, " +
+            "cancelled_appointments = EXCLUDED.cancelled_appointments, " +
+            "new_patients = EXCLUDED.new_patients, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ShardingProperties shardingProperties;
+
+    public DailyRollupJob(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                          ShardingProperties shardingProperties) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.shardingProperties = shardingProperties;
+    }
+
+    @Scheduled(initialDelayString = "${dental.rollup.initial-delay:PT30S}",
+               fixedDelayString = "${dental.rollup.interval:PT5M}")
+    public Mono<Void> refreshDirtyDays() {
+        return Flux.fromIterable(shardingProperties.shardNames())
+                .concatMap(this::refreshDirtyDays)
+                .then();
+    }
+
+    private Mono<Void> refreshDirtyDays(String shard) {
+        return ShardRouting.on(shard, databaseClient.sql(CLAIM_SQL)
+                        .map(row -> new DirtyDay(row.get("tenant_id", UUID.class), row.get("stat_date", LocalDate.class)))
+                        .all()
+                        .collectList()
+                        .filter(claimed -> !claimed.isEmpty())
+                        .flatMap(claimed -> databaseClient.sql(ROLLUP_SQL)
+                                .bind("tenantIds", claimed.stream().map(DirtyDay::tenantId).toArray(UUID[]::new))
+                                .bind("days", claimed.stream().map(DirtyDay::day).toArray(LocalDate[]::new))
+                                .fetch()
+                                .rowsUpdated())
+                        .as(transactionalOperator::transactional))
+                .doOnNext(days -> {
+                    if (days > 0) {
+                        log.debug("Daily rollup refreshed {} tenant-days on shard {}", days, shard);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.error("Daily rollup refresh failed on shard {}: {}", shard, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private record DirtyDay(UUID tenantId, LocalDate day) {
+    }
+}
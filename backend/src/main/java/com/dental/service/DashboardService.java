@@ -1,71 +1,141 @@
 package com.dental.service;
 
+import com.dental.cache.SingleFlight;
+import com.dental.db.ReplicaReads;
 import com.dental.dto.DashboardStatsDTO;
+import com.dental.dto.DashboardTimeSeriesDTO;
+import com.dental.dto.TimeSeriesPointDTO;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class DashboardService {
 
+    // Counters are maintained by TenantStatsService on every write, so a dashboard load
+    // is two primary-key lookups in one statement regardless of tenant size.
+    static final String STATS_SQL =
+            "SELECT s.total_patients, s.active_staff, s.appointments_pending, " +
+            "COALESCE(d.appointments, 0) AS appointments_today " +
+            "FROM tenant_stats s " +
+            "LEFT JOIN tenant_daily_stats d ON d.tenant_id = s.tenant_id AND d.stat_date = :today " +
+            "WHERE s.tenant_id = :tenantId";
+
+    public static final String METRIC_APPOINTMENTS = "appointments";
+    public static final String METRIC_NEW_PATIENTS = "new_patients";
+    public static final String METRIC_CANCELLATIONS = "cancellations";
+
+    private static final int MAX_TIMESERIES_DAYS = 366;
+
+    private static final String DAILY_SERIES_SQL =
+            "SELECT stat_date AS bucket, %s AS value FROM daily_tenant_rollup " +
+            "WHERE tenant_id = :tenantId AND stat_date >= :from AND stat_date <= :to";
+
+    private static final String WEEKLY_SERIES_SQL =
+            "SELECT CAST(date_trunc('week', stat_date) AS DATE) AS bucket, CAST(SUM(%s) AS BIGINT) AS value " +
+            "FROM daily_tenant_rollup " +
+            "WHERE tenant_id = :tenantId AND stat_date >= :from AND stat_date <= :to " +
+            "GROUP BY 1";
+
     private final DatabaseClient databaseClient;
+    private final SingleFlight singleFlight;
+    private final Duration microTtl;
 
-    public DashboardService(DatabaseClient databaseClient) {
+    public DashboardService(DatabaseClient databaseClient,
+                            SingleFlight singleFlight,
+                            @Value("${dental.singleflight.micro-ttl:500ms}") Duration microTtl) {
         this.databaseClient = databaseClient;
+        this.singleFlight = singleFlight;
+        this.microTtl = microTtl;
     }
 
+    // Dashboard queries tolerate replica lag; the tenant's own recent writes keep them on the primary
     public Mono<DashboardStatsDTO> getStatsForTenant(UUID tenantId) {
-        Mono<Long> totalPatients = countTotalPatients(tenantId);
-        Mono<Long> activeStaff = countActiveStaff(tenantId);
-        Mono<Long> appointmentsToday = countAppointmentsToday(tenantId);
-        Mono<Long> appointmentsPending = countAppointmentsPending(tenantId);
-
-        return Mono.zip(totalPatients, activeStaff, appointmentsToday, appointmentsPending)
-                .map(tuple -> new DashboardStatsDTO(
-                        tuple.getT1(),
-                        tuple.getT2(),
-                        tuple.getT3(),
-                        tuple.getT4()
-                ));
+        return singleFlight.execute(tenantId, "dashboard.stats", null, microTtl, () -> ReplicaReads.route(loadStats(tenantId)));
     }
 
-    private Mono<Long> countTotalPatients(UUID tenantId) {
-        String sql = "SELECT COUNT(*) FROM patients WHERE tenant_id = :tenantId AND deleted_at IS NULL";
-        return databaseClient.sql(sql)
+    private Mono<DashboardStatsDTO> loadStats(UUID tenantId) {
+        return databaseClient.sql(STATS_SQL)
                 .bind("tenantId", tenantId)
-                .map(row -> row.get(0, Long.class))
+                .bind("today", LocalDate.now())
+                .map(row -> new DashboardStatsDTO(
+                        countOrZero(row.get("total_patients", Long.class)),
+                        countOrZero(row.get("active_staff", Long.class)),
+                        countOrZero(row.get("appointments_today", Long.class)),
+                        countOrZero(row.get("appointments_pending", Long.class))
+                ))
                 .one()
-                .defaultIfEmpty(0L);
+                .defaultIfEmpty(new DashboardStatsDTO(0L, 0L, 0L, 0L));
     }
 
-    private Mono<Long> countActiveStaff(UUID tenantId) {
-        String sql = "SELECT COUNT(*) FROM staff WHERE tenant_id = :tenantId AND deleted_at IS NULL";
-        return databaseClient.sql(sql)
-                .bind("tenantId", tenantId)
-                .map(row -> row.get(0, Long.class))
-                .one()
-                .defaultIfEmpty(0L);
+    private Long countOrZero(Long count) {
+        return count != null ? count : 0L;
     }
 
-    private Mono<Long> countAppointmentsToday(UUID tenantId) {
-        String sql = "SELECT COUNT(*) FROM appointments WHERE tenant_id = :tenantId AND DATE(start_time) = :today";
-        return databaseClient.sql(sql)
+    /**
+     * Reads a trend series from daily_tenant_rollup (filled by DailyRollupJob).
+     * Appointments and cancellations are daily; new patients are summed per ISO week.
+     * Buckets without rollup rows are returned as zero so charts have no gaps.
+     */
+    public Mono<DashboardTimeSeriesDTO> getTimeSeries(UUID tenantId, String metric, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return Mono.error(new IllegalArgumentException("'from' must not be after 'to'"));
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_TIMESERIES_DAYS) {
+            return Mono.error(new IllegalArgumentException("Range must not exceed " + MAX_TIMESERIES_DAYS + " days"));
+        }
+
+        String sql;
+        boolean weekly = false;
+        if (METRIC_APPOINTMENTS.equals(metric)) {
+            sql = String.format(DAILY_SERIES_SQL, "appointments");
+        } else if (METRIC_CANCELLATIONS.equals(metric)) {
+            sql = String.format(DAILY_SERIES_SQL, "cancelled_appointments");
+        } else if (METRIC_NEW_PATIENTS.equals(metric)) {
+            sql = String.format(WEEKLY_SERIES_SQL, "new_patients");
+            weekly = true;
+        } else {
+            return Mono.error(new IllegalArgumentException("Unknown metric: " + metric));
+        }
+
+        boolean isWeekly = weekly;
+        // Weekly buckets are whole ISO weeks, so the first and last ones are not partial sums
+        LocalDate queryFrom = weekly ? from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : from;
+        LocalDate queryTo = weekly ? to.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)) : to;
+        return ReplicaReads.route(databaseClient.sql(sql)
                 .bind("tenantId", tenantId)
-                .bind("today", LocalDate.now())
-                .map(row -> row.get(0, Long.class))
-                .one()
-                .defaultIfEmpty(0L);
+                .bind("from", queryFrom)
+                .bind("to", queryTo)
+                .map(row -> Map.entry(row.get("bucket", LocalDate.class), countOrZero(row.get("value", Long.class))))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue))
+                .map(values -> new DashboardTimeSeriesDTO(
+                        metric,
+                        isWeekly ? "week" : "day",
+                        from,
+                        to,
+                        fillBuckets(values, from, to, isWeekly)
+                ));
     }
 
-    private Mono<Long> countAppointmentsPending(UUID tenantId) {
-        String sql = "SELECT COUNT(*) FROM appointments WHERE tenant_id = :tenantId AND status = 'SCHEDULED'";
-        return databaseClient.sql(sql)
-                .bind("tenantId", tenantId)
-                .map(row -> row.get(0, Long.class))
-                .one()
-                .defaultIfEmpty(0L);
+    private List<TimeSeriesPointDTO> fillBuckets(Map<LocalDate, Long> values, LocalDate from, LocalDate to, boolean weekly) {
+        List<TimeSeriesPointDTO> points = new ArrayList<>();
+        LocalDate bucket = weekly ? from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : from;
+        while (!bucket.isAfter(to)) {
+            points.add(new TimeSeriesPointDTO(bucket, values.getOrDefault(bucket, 0L)));
+            bucket = weekly ? bucket.plusWeeks(1) : bucket.plusDays(1);
+        }
+        return points;
     }
 }
@@ -1,22 +1,30 @@
 package com.dental.service;
 
+import com.dental.cache.TenantDataVersions;
 import com.dental.domain.model.Patient;
 import com.dental.dto.PatientDTO;
 import com.dental.repository.PatientRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @Service
 public class PatientService {
     
     private final PatientRepository patientRepository;
+    private final TenantStatsService tenantStatsService;
+    private final TenantDataVersions tenantDataVersions;
     
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository, TenantStatsService tenantStatsService,
+                          TenantDataVersions tenantDataVersions) {
         this.patientRepository = patientRepository;
+        this.tenantStatsService = tenantStatsService;
+        this.tenantDataVersions = tenantDataVersions;
     }
     
     public Flux<PatientDTO> getAllPatients(UUID tenantId) {
@@ -29,6 +37,7 @@ public class PatientService {
                 .map(this::toDTO);
     }
     
+    @Transactional
     public Mono<PatientDTO> createPatient(UUID tenantId, PatientDTO dto) {
         Patient patient = new Patient();
         patient.setTenantId(tenantId);
@@ -40,12 +49,14 @@ public class PatientService {
         patient.setCreatedAt(LocalDateTime.now());
         
         return patientRepository.save(patient)
+                .flatMap(saved -> tenantStatsService.patientsChanged(tenantId, 1).thenReturn(saved))
+                .flatMap(saved -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.PATIENTS).thenReturn(saved))
                 .map(this::toDTO);
     }
     
     public Mono<PatientDTO> updatePatient(UUID id, UUID tenantId, PatientDTO dto) {
         return patientRepository.findByIdAndTenantIdAndNotDeleted(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Patient not found")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Patient not found")))
                 .flatMap(patient -> {
                     patient.setFirstName(dto.getFirstName());
                     patient.setLastName(dto.getLastName());
@@ -55,17 +66,20 @@ public class PatientService {
                     patient.setUpdatedAt(LocalDateTime.now());
                     return patientRepository.save(patient);
                 })
+                .flatMap(saved -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.PATIENTS).thenReturn(saved))
                 .map(this::toDTO);
     }
     
+    @Transactional
     public Mono<Void> deletePatient(UUID id, UUID tenantId) {
         return patientRepository.findByIdAndTenantIdAndNotDeleted(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Patient not found")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Patient not found")))
                 .flatMap(patient -> {
                     patient.setDeletedAt(LocalDateTime.now());
                     return patientRepository.save(patient);
                 })
-                .then();
+                .flatMap(deleted -> tenantStatsService.patientsChanged(tenantId, -1))
+                .then(Mono.defer(() -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.PATIENTS)));
     }
     
     private PatientDTO toDTO(Patient patient) {
@@ -1,17 +1,25 @@
 package com.dental.service;
 
+import com.dental.cache.SingleFlight;
+import com.dental.cache.TenantDataVersions;
 import com.dental.domain.model.Staff;
 import com.dental.domain.model.User;
 import com.dental.dto.CreateStaffRequest;
+import com.dental.dto.DentistDTO;
 import com.dental.dto.StaffDTO;
 import com.dental.repository.StaffRepository;
 import com.dental.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @Service
@@ -20,11 +28,36 @@ public class StaffService {
     private final StaffRepository staffRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TenantStatsService tenantStatsService;
+    private final TenantDataVersions tenantDataVersions;
+    private final SingleFlight singleFlight;
+    private final Duration microTtl;
     
-    public StaffService(StaffRepository staffRepository, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public StaffService(StaffRepository staffRepository, UserRepository userRepository, PasswordEncoder passwordEncoder,
+                        TenantStatsService tenantStatsService, TenantDataVersions tenantDataVersions,
+                        SingleFlight singleFlight,
+                        @Value("${dental.singleflight.micro-ttl:500ms}") Duration microTtl) {
         this.staffRepository = staffRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tenantStatsService = tenantStatsService;
+        this.tenantDataVersions = tenantDataVersions;
+        this.singleFlight = singleFlight;
+        this.microTtl = microTtl;
+    }
+    
+    // Dentists are staff rows linked to a user; staff (and link/unlink) writes bump STAFF
+    public Mono<List<DentistDTO>> getDentists(UUID tenantId) {
+        return singleFlight.execute(tenantId, "dentists", null, microTtl,
+                () -> staffRepository.findByTenantIdAndNotDeleted(tenantId)
+                        .filter(staff -> staff.getUserId() != null)
+                        .map(staff -> new DentistDTO(
+                                staff.getUserId(),
+                                staff.getFirstName(),
+                                staff.getLastName(),
+                                staff.getFirstName() + " " + staff.getLastName()
+                        ))
+                        .collectList());
     }
     
     public Flux<StaffDTO> getAllStaff(UUID tenantId) {
@@ -37,6 +70,7 @@ public class StaffService {
                 .map(this::toDTO);
     }
     
+    @Transactional
     public Mono<StaffDTO> createStaff(UUID tenantId, CreateStaffRequest request) {
         Staff staff = new Staff();
         staff.setTenantId(tenantId);
@@ -61,16 +95,22 @@ public class StaffService {
                                 return userRepository.save(user)
                                         .then(staffRepository.save(savedStaff));
                             }))
+                    .flatMap(saved -> tenantStatsService.staffChanged(tenantId, 1).thenReturn(saved))
+                    .flatMap(saved -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.STAFF)
+                            .then(tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.USERS))
+                            .thenReturn(saved))
                     .map(this::toDTO);
         } else {
             return staffRepository.save(staff)
+                    .flatMap(saved -> tenantStatsService.staffChanged(tenantId, 1).thenReturn(saved))
+                    .flatMap(saved -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.STAFF).thenReturn(saved))
                     .map(this::toDTO);
         }
     }
     
     public Mono<StaffDTO> updateStaff(UUID id, UUID tenantId, StaffDTO dto) {
         return staffRepository.findByIdAndTenantIdAndNotDeleted(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Staff not found")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Staff not found")))
                 .flatMap(staff -> {
                     staff.setFirstName(dto.getFirstName());
                     staff.setLastName(dto.getLastName());
@@ -83,17 +123,20 @@ public class StaffService {
                     staff.setUpdatedAt(LocalDateTime.now());
                     return staffRepository.save(staff);
                 })
+                .flatMap(saved -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.STAFF).thenReturn(saved))
                 .map(this::toDTO);
     }
     
+    @Transactional
     public Mono<Void> deleteStaff(UUID id, UUID tenantId) {
         return staffRepository.findByIdAndTenantIdAndNotDeleted(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Staff not found")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Staff not found")))
                 .flatMap(staff -> {
                     staff.setDeletedAt(LocalDateTime.now());
                     return staffRepository.save(staff);
                 })
-                .then();
+                .flatMap(deleted -> tenantStatsService.staffChanged(tenantId, -1))
+                .then(Mono.defer(() -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.STAFF)));
     }
     
     private Mono<User> createUserForStaff(UUID tenantId, CreateStaffRequest request) {
@@ -0,0 +1,147 @@
+package com.dental.service;
+
+import com.dental.config.AppointmentPartitionProperties;
+import com.dental.config.ShardingProperties;
+import com.dental.sharding.ShardRouting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Periodically recomputes tenant_stats and tenant_daily_stats from the source tables,
+ * correcting any drift left by failed writes or manual data fixes. Runs on each shard,
+ * one transaction per tenant.
+ * <p>
+ * The counter rows are locked before counting: writers adjust them in the same transaction
+ * as the write, so once the lock is held every committed write is in the next statement's
+ * snapshot and every pending one will add its delta on top of the recomputed value.
+ * Rows that did not exist when the locks were taken are only inserted, never overwritten.
+ */
+@Component
+public class TenantStatsReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantStatsReconciliationJob.class);
+
+    // main keeps the tenants row of tenants moved to other shards
+    private static final String TENANTS_SQL =
+            "SELECT t.id FROM tenants t " +
+            "WHERE NOT EXISTS (SELECT 1 FROM tenant_shards ts WHERE ts.tenant_id = t.id AND ts.shard <> :shard)";
+
+    private static final String LOCK_STATS_SQL =
+            "SELECT tenant_id FROM tenant_stats WHERE tenant_id = :tenantId FOR UPDATE";
+
+    private static final String LOCK_DAILY_SQL =
+            "SELECT stat_date FROM tenant_daily_stats " +
+            "WHERE tenant_id = :tenantId AND stat_date >= :from AND stat_date < :to FOR UPDATE";
+
+    private static final String RECONCILE_STATS_SQL =
+            "INSERT INTO tenant_stats (tenant_id, total_patients, active_staff, appointments_pending, updated_at) " +
+            "SELECT :tenantId, " +
+            "(SELECT COUNT(*) FROM patients p WHERE p.tenant_id = :tenantId AND p.deleted_at IS NULL), " +
+            "(SELECT COUNT(*) FROM staff s WHERE s.tenant_id = :tenantId AND s.deleted_at IS NULL), " +
+            "(SELECT COUNT(*) FROM appointments a WHERE a.tenant_id = :tenantId AND a.status = 'SCHEDULED'), " +
+            "NOW() " +
+            "ON CONFLICT (tenant_id) DO UPDATE SET " +
+            "total_patients = EXCLUDED.total_patients, " +
+            "active_staff = EXCLUDED.active_staff, " +
+            "appointments_pending = EXCLUDED.appointments_pending, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "WHERE :locked";
+
+    // Locked days without appointments go back to zero; other days are only inserted
+    private static final String RECONCILE_DAILY_SQL =
+            "WITH counts AS (" +
+            "SELECT CAST(start_time AS DATE) AS stat_date, COUNT(*) AS appointments FROM appointments " +
+            "WHERE tenant_id = :tenantId AND start_time >= :from AND start_time < :to " +
+            "GROUP BY 1), " +
+            "days AS (SELECT stat_date FROM counts UNION SELECT unnest(CAST(:locked AS DATE[]))) " +
+            "INSERT INTO tenant_daily_stats (tenant_id, stat_date, appointments) " +
+            "SELECT :tenantId, days.stat_date, COALESCE(counts.appointments, 0) " +
+            "FROM days LEFT JOIN counts USING (stat_date) " +
+            "ON CONFLICT (tenant_id, stat_date) DO UPDATE SET appointments = EXCLUDED.appointments " +
+            "WHERE tenant_daily_stats.stat_date = ANY(CAST(:locked AS DATE[]))";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ShardingProperties shardingProperties;
+    private final AppointmentPartitionProperties partitionProperties;
+    private final int reconcileDays;
+
+    public TenantStatsReconciliationJob(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                                        ShardingProperties shardingProperties,
+                                        AppointmentPartitionProperties partitionProperties,
+                                        @Value("${dental.stats.reconcile-days:7}") int reconcileDays) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.shardingProperties = shardingProperties;
+        this.partitionProperties = partitionProperties;
+        this.reconcileDays = reconcileDays;
+    }
+
+    @Scheduled(initialDelayString = "${dental.stats.reconcile-initial-delay:PT1M}",
+               fixedDelayString = "${dental.stats.reconcile-interval:PT15M}")
+    public Mono<Void> reconcile() {
+        return Flux.fromIterable(shardingProperties.shardNames())
+                .concatMap(this::reconcile)
+                .then();
+    }
+
+    private Mono<Void> reconcile(String shard) {
+        // Only days around today: older daily counts no longer feed the dashboard, and
+        // archived months are final
+        LocalDate today = LocalDate.now();
+        LocalDate firstHotDay = partitionProperties.firstMonth();
+        LocalDate from = today.minusDays(reconcileDays).isBefore(firstHotDay) ? firstHotDay : today.minusDays(reconcileDays);
+        LocalDate to = today.plusDays(reconcileDays + 1L);
+        return ShardRouting.on(shard, databaseClient.sql(TENANTS_SQL)
+                        .bind("shard", shard)
+                        .map(row -> row.get("id", UUID.class))
+                        .all()
+                        .concatMap(tenantId -> reconcileTenant(tenantId, from, to))
+                        .count())
+                .doOnSuccess(tenants -> log.debug("Tenant stats reconciled for {} tenants on shard {}", tenants, shard))
+                .onErrorResume(e -> {
+                    log.error("Tenant stats reconciliation failed on shard {}: {}", shard, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> reconcileTenant(UUID tenantId, LocalDate from, LocalDate to) {
+        Mono<Boolean> lockStats = databaseClient.sql(LOCK_STATS_SQL)
+                .bind("tenantId", tenantId)
+                .map(row -> row.get("tenant_id", UUID.class))
+                .one()
+                .hasElement();
+        Mono<List<LocalDate>> lockDaily = databaseClient.sql(LOCK_DAILY_SQL)
+                .bind("tenantId", tenantId)
+                .bind("from", from)
+                .bind("to", to)
+                .map(row -> row.get("stat_date", LocalDate.class))
+                .all()
+                .collectList();
+        return lockStats
+                .flatMap(statsLocked -> lockDaily
+                        .flatMap(lockedDays -> databaseClient.sql(RECONCILE_STATS_SQL)
+                                .bind("tenantId", tenantId)
+                                .bind("locked", statsLocked)
+                                .then()
+                                .then(databaseClient.sql(RECONCILE_DAILY_SQL)
+                                        .bind("tenantId", tenantId)
+                                        .bind("from", from.atStartOfDay())
+                                        .bind("to", to.atStartOfDay())
+                                        .bind("locked", lockedDays.toArray(LocalDate[]::new))
+                                        .then())))
+                .as(transactionalOperator::transactional);
+    }
+}
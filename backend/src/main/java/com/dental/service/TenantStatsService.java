@@ -0,0 +1,125 @@
+package com.dental.service;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Maintains the per-tenant counters in tenant_stats and tenant_daily_stats, and marks the
+ * days touched by each write in daily_tenant_rollup_dirty for DailyRollupJob.
+ * Callers invoke these methods inside the same transaction as the write they describe,
+ * so the dashboard can read precomputed values instead of counting on every request.
+ */
+@Service
+public class TenantStatsService {
+
+    public static final String STATUS_SCHEDULED = "SCHEDULED";
+
+    private static final String ADJUST_STATS_SQL =
+            "INSERT INTO tenant_stats (tenant_id, total_patients, active_staff, appointments_pending, updated_at) " +
+            "VALUES (:tenantId, :patients, :staff, :pending, :now) " +
+            "ON CONFLICT (tenant_id) DO UPDATE SET " +
+            "total_patients = tenant_stats.total_patients + EXCLUDED.total_patients, " +
+            "active_staff = tenant_stats.active_staff + EXCLUDED.active_staff, " +
+            "appointments_pending = tenant_stats.appointments_pending + EXCLUDED.appointments_pending, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String ADJUST_DAILY_SQL =
+            "INSERT INTO tenant_daily_stats (tenant_id, stat_date, appointments) " +
+            "VALUES (:tenantId, :statDate, :delta) " +
+            "ON CONFLICT (tenant_id, stat_date) DO UPDATE SET " +
+            "appointments = tenant_daily_stats.appointments + EXCLUDED.appointments";
+
+    // A real write even when the day is already dirty: the row stays locked until the
+    // caller commits, so DailyRollupJob cannot claim it while this write is still invisible
+    private static final String MARK_DIRTY_SQL =
+            "INSERT INTO daily_tenant_rollup_dirty (tenant_id, stat_date, marked_at) " +
+            "VALUES (:tenantId, :statDate, clock_timestamp()) " +
+            "ON CONFLICT (tenant_id, stat_date) DO UPDATE SET marked_at = EXCLUDED.marked_at";
+
+    private final DatabaseClient databaseClient;
+
+    public TenantStatsService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> patientsChanged(UUID tenantId, long delta) {
+        return adjust(tenantId, delta, 0, 0)
+                .then(markDirty(tenantId, LocalDate.now()));
+    }
+
+    public Mono<Void> staffChanged(UUID tenantId, long delta) {
+        return adjust(tenantId, 0, delta, 0);
+    }
+
+    public Mono<Void> appointmentAdded(UUID tenantId, String status, LocalDateTime startTime) {
+        return appointmentChanged(tenantId, status, startTime, 1);
+    }
+
+    public Mono<Void> appointmentRemoved(UUID tenantId, String status, LocalDateTime startTime) {
+        return appointmentChanged(tenantId, status, startTime, -1);
+    }
+
+    public Mono<Void> appointmentMoved(UUID tenantId,
+                                       String oldStatus, LocalDateTime oldStartTime,
+                                       String newStatus, LocalDateTime newStartTime) {
+        long pendingDelta = pendingWeight(newStatus) - pendingWeight(oldStatus);
+        Mono<Void> pending = pendingDelta != 0 ? adjust(tenantId, 0, 0, pendingDelta) : Mono.empty();
+
+        LocalDate oldDay = oldStartTime != null ? oldStartTime.toLocalDate() : null;
+        LocalDate newDay = newStartTime != null ? newStartTime.toLocalDate() : null;
+        if (oldDay != null && oldDay.equals(newDay)) {
+            // Status may still have changed (e.g. to CANCELLED), so the rollup needs a refresh
+            return pending.then(markDirty(tenantId, newDay));
+        }
+        return pending
+                .then(adjustDaily(tenantId, oldDay, -1))
+                .then(adjustDaily(tenantId, newDay, 1));
+    }
+
+    private Mono<Void> appointmentChanged(UUID tenantId, String status, LocalDateTime startTime, long delta) {
+        long pendingDelta = pendingWeight(status) * delta;
+        Mono<Void> pending = pendingDelta != 0 ? adjust(tenantId, 0, 0, pendingDelta) : Mono.empty();
+        return pending.then(adjustDaily(tenantId, startTime != null ? startTime.toLocalDate() : null, delta));
+    }
+
+    private long pendingWeight(String status) {
+        return STATUS_SCHEDULED.equals(status) ? 1 : 0;
+    }
+
+    private Mono<Void> adjust(UUID tenantId, long patients, long staff, long pending) {
+        return databaseClient.sql(ADJUST_STATS_SQL)
+                .bind("tenantId", tenantId)
+                .bind("patients", patients)
+                .bind("staff", staff)
+                .bind("pending", pending)
+                .bind("now", LocalDateTime.now())
+                .then();
+    }
+
+    private Mono<Void> adjustDaily(UUID tenantId, LocalDate day, long delta) {
+        if (day == null) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(ADJUST_DAILY_SQL)
+                .bind("tenantId", tenantId)
+                .bind("statDate", day)
+                .bind("delta", delta)
+                .then()
+                .then(markDirty(tenantId, day));
+    }
+
+    private Mono<Void> markDirty(UUID tenantId, LocalDate day) {
+        if (day == null) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(MARK_DIRTY_SQL)
+                .bind("tenantId", tenantId)
+                .bind("statDate", day)
+                .then();
+    }
+}
@@ -1,5 +1,6 @@
 package com.dental.service;
 
+import com.dental.cache.TenantDataVersions;
 import com.dental.domain.model.Staff;
 import com.dental.domain.model.User;
 import com.dental.dto.*;
@@ -11,6 +12,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @Service
@@ -19,18 +21,20 @@ public class UserService {
     private final UserRepository userRepository;
     private final StaffRepository staffRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TenantDataVersions tenantDataVersions;
     
     public UserService(UserRepository userRepository, 
                       StaffRepository staffRepository,
-                      PasswordEncoder passwordEncoder) {
+                      PasswordEncoder passwordEncoder,
+                      TenantDataVersions tenantDataVersions) {
         this.userRepository = userRepository;
         this.staffRepository = staffRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tenantDataVersions = tenantDataVersions;
     }
     
     public Flux<UserDTO> getAllUsers(UUID tenantId) {
-        return userRepository.findByTenantId(tenantId)
-                .flatMap(this::toDTOWithStaffInfo);
+        return userRepository.findAllWithStaffNameByTenantId(tenantId);
     }
     
     public Mono<UserDTO> createUser(UUID tenantId, CreateUserRequest request) {
@@ -38,7 +42,7 @@ public class UserService {
                 .hasElement()
                 .flatMap(exists -> {
                     if (exists) {
-                        return Mono.error(new RuntimeException("Email ya existe en este tenant"));
+                        return Mono.error(new IllegalArgumentException("Email ya existe en este tenant"));
                     }
                     
                     User user = new User();
@@ -53,35 +57,37 @@ public class UserService {
                     user.setStaffId(request.getStaffId());
                     
                     return userRepository.save(user)
+                            .flatMap(savedUser -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.USERS).thenReturn(savedUser))
                             .flatMap(savedUser -> {
                                 if (savedUser.getStaffId() != null) {
                                     return linkUserToStaff(savedUser.getId(), savedUser.getStaffId(), tenantId)
-                                            .then(toDTOWithStaffInfo(savedUser));
+                                            .then(userRepository.findWithStaffNameByIdAndTenantId(savedUser.getId(), tenantId));
                                 }
-                                return toDTOWithStaffInfo(savedUser);
+                                return userRepository.findWithStaffNameByIdAndTenantId(savedUser.getId(), tenantId);
                             });
                 });
     }
     
     public Mono<UserDTO> updateUser(UUID id, UUID tenantId, UpdateUserRequest request) {
         return userRepository.findByIdAndTenantId(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Usuario no encontrado")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Usuario no encontrado")))
                 .flatMap(user -> {
                     user.setFirstName(request.getFirstName());
                     user.setLastName(request.getLastName());
                     user.setRole(request.getRole());
                     return userRepository.save(user);
                 })
-                .flatMap(this::toDTOWithStaffInfo);
+                .flatMap(saved -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.USERS).thenReturn(saved))
+                .flatMap(saved -> userRepository.findWithStaffNameByIdAndTenantId(saved.getId(), tenantId));
     }
     
     public Mono<Void> changePassword(UUID id, UUID tenantId, ChangePasswordRequest request) {
         if (request.getNewPassword() == null || request.getNewPassword().length() < 8) {
-            return Mono.error(new RuntimeException("Password debe tener al menos 8 caracteres"));
+            return Mono.error(new IllegalArgumentException("Password debe tener al menos 8 caracteres"));
         }
         
         return userRepository.findByIdAndTenantId(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Usuario no encontrado")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Usuario no encontrado")))
                 .flatMap(user -> {
                     user.setPassword(passwordEncoder.encode(request.getNewPassword()));
                     return userRepository.save(user);
@@ -91,22 +97,22 @@ public class UserService {
     
     public Mono<Void> deactivateUser(UUID id, UUID tenantId) {
         return userRepository.findByIdAndTenantId(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Usuario no encontrado")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Usuario no encontrado")))
                 .flatMap(user -> {
                     user.setActive(false);
                     return userRepository.save(user);
                 })
-                .then();
+                .then(Mono.defer(() -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.USERS)));
     }
     
     public Mono<Void> activateUser(UUID id, UUID tenantId) {
         return userRepository.findByIdAndTenantId(id, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Usuario no encontrado")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Usuario no encontrado")))
                 .flatMap(user -> {
                     user.setActive(true);
                     return userRepository.save(user);
                 })
-                .then();
+                .then(Mono.defer(() -> tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.USERS)));
     }
     
     public Mono<Void> linkUserToStaff(UUID userId, UUID staffId, UUID tenantId) {
@@ -123,17 +129,18 @@ public class UserService {
             
             return userRepository.save(user)
                     .then(staffRepository.save(staff))
-                    .then();
+                    .then(tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.USERS))
+                    .then(tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.STAFF));
         });
     }
     
     public Mono<Void> unlinkUserFromStaff(UUID userId, UUID tenantId) {
         return userRepository.findByIdAndTenantId(userId, tenantId)
-                .switchIfEmpty(Mono.error(new RuntimeException("Usuario no encontrado")))
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Usuario no encontrado")))
                 .flatMap(user -> {
                     UUID staffId = user.getStaffId();
                     if (staffId == null) {
-                        return Mono.error(new RuntimeException("Usuario no está vinculado a staff"));
+                        return Mono.error(new IllegalArgumentException("Usuario no está vinculado a staff"));
                     }
                     
                     user.setStaffId(null);
@@ -145,32 +152,8 @@ public class UserService {
                                 return staffRepository.save(staff);
                             })
                             .then(userRepository.save(user))
-                            .then();
+                            .then(tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.USERS))
+                            .then(tenantDataVersions.bumpAfterCommit(tenantId, TenantDataVersions.STAFF));
                 });
     }
-    
-    private Mono<UserDTO> toDTOWithStaffInfo(User user) {
-        if (user.getStaffId() == null) {
-            return Mono.just(toDTO(user, null));
-        }
-        
-        return staffRepository.findById(user.getStaffId())
-                .map(staff -> toDTO(user, staff.getFirstName() + " " + staff.getLastName()))
-                .defaultIfEmpty(toDTO(user, null));
-    }
-    
-    private UserDTO toDTO(User user, String staffName) {
-        UserDTO dto = new UserDTO();
-        dto.setId(user.getId());
-        dto.setTenantId(user.getTenantId());
-        dto.setStaffId(user.getStaffId());
-        dto.setStaffName(staffName);
-        dto.setEmail(user.getEmail());
-        dto.setFirstName(user.getFirstName());
-        dto.setLastName(user.getLastName());
-        dto.setRole(user.getRole());
-        dto.setActive(user.getActive());
-        dto.setCreatedAt(user.getCreatedAt());
-        return dto;
-    }
 }
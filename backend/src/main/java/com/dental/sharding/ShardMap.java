@@ -0,0 +1,53 @@
+package com.dental.sharding;
+
+import com.dental.config.ShardingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory copy of the shard directory (tenant_shards on the main shard), reloaded by
+ * {@link ShardMapRefresher} and updated right away by {@link TenantMover} on this node.
+ * Connection routing reads it on every acquisition, so it never touches the database.
+ */
+@Component
+public class ShardMap {
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String MOVING = "MOVING";
+
+    private static final Placement ON_MAIN = new Placement(ShardingProperties.MAIN, ACTIVE);
+
+    private volatile Map<UUID, Placement> placements = Map.of();
+
+    public String shardOf(UUID tenantId) {
+        return placementOf(tenantId).shard();
+    }
+
+    public boolean isMoving(UUID tenantId) {
+        return MOVING.equals(placementOf(tenantId).status());
+    }
+
+    public Placement placementOf(UUID tenantId) {
+        return placements.getOrDefault(tenantId, ON_MAIN);
+    }
+
+    public Map<UUID, Placement> placements() {
+        return placements;
+    }
+
+    synchronized void replace(Map<UUID, Placement> loaded) {
+        placements = Map.copyOf(loaded);
+    }
+
+    synchronized void put(UUID tenantId, Placement placement) {
+        Map<UUID, Placement> updated = new HashMap<>(placements);
+        updated.put(tenantId, placement);
+        placements = Map.copyOf(updated);
+    }
+
+    public record Placement(String shard, String status) {
+    }
+}
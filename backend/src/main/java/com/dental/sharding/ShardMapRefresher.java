@@ -0,0 +1,49 @@
+package com.dental.sharding;
+
+import com.dental.config.ShardingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reloads the {@link ShardMap} from the directory on the main shard. Other nodes' moves
+ * become visible here within {@code dental.sharding.map-refresh-interval}.
+ */
+@Component
+public class ShardMapRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardMapRefresher.class);
+
+    private final DatabaseClient databaseClient;
+    private final ShardMap shardMap;
+    private final ShardingProperties properties;
+
+    public ShardMapRefresher(DatabaseClient databaseClient, ShardMap shardMap, ShardingProperties properties) {
+        this.databaseClient = databaseClient;
+        this.shardMap = shardMap;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dental.sharding.map-refresh-interval:PT10S}")
+    public Mono<Void> refresh() {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        return ShardRouting.on(ShardingProperties.MAIN, databaseClient.sql("SELECT tenant_id, shard, status FROM tenant_shards")
+                        .map(row -> Map.entry(row.get("tenant_id", UUID.class),
+                                new ShardMap.Placement(row.get("shard", String.class), row.get("status", String.class))))
+                        .all()
+                        .collectMap(Map.Entry::getKey, Map.Entry::getValue))
+                .doOnNext(shardMap::replace)
+                .doOnError(e -> log.warn("Could not reload the shard map, keeping {} placements: {}",
+                        shardMap.placements().size(), e.toString()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
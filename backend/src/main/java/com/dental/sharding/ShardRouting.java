@@ -0,0 +1,42 @@
+package com.dental.sharding;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Reactor Context entry pinning the wrapped publisher's connections to one shard,
+ * overriding the tenant's placement. Used by work that is not scoped to a request's
+ * tenant: scheduled jobs that run on every shard, the directory itself, the login lookup.
+ */
+public final class ShardRouting {
+
+    private static final String CONTEXT_KEY = ShardRouting.class.getName();
+
+    private ShardRouting() {
+    }
+
+    public static <T> Mono<T> on(String shard, Mono<T> work) {
+        return work.contextWrite(context -> context.put(CONTEXT_KEY, shard));
+    }
+
+    public static <T> Flux<T> on(String shard, Flux<T> work) {
+        return work.contextWrite(context -> context.put(CONTEXT_KEY, shard));
+    }
+
+    /**
+     * Runs the lookup on each shard in turn and emits the first result found.
+     */
+    public static <T> Mono<T> firstOf(Collection<String> shards, Function<String, Mono<T>> lookup) {
+        return Flux.fromIterable(shards)
+                .concatMap(shard -> on(shard, lookup.apply(shard)))
+                .next();
+    }
+
+    static String from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+}
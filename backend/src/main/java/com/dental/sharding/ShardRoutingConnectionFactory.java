@@ -0,0 +1,96 @@
+package com.dental.sharding;
+
+import com.dental.config.ShardingProperties;
+import com.dental.db.ReplicaRoutingConnectionFactory;
+import com.dental.security.TenantContext;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The application's {@link ConnectionFactory}: picks the shard of the tenant in the
+ * Reactor Context ({@link TenantContext}) from the {@link ShardMap}, so every repository
+ * and DatabaseClient call lands on the tenant's database without knowing about shards.
+ * A shard pinned with {@link ShardRouting} wins over the tenant's placement; calls with
+ * neither go to {@code main}. Transactions bind the connection they start with, so a
+ * transactional service method stays on one shard.
+ * <p>
+ * {@code main} is the {@link ReplicaRoutingConnectionFactory} (primary plus optional
+ * replica); other shards are plain pools. {@link #unwrap()} exposes {@code main} so Spring
+ * Boot keeps exporting its pool gauges.
+ */
+public class ShardRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private final ReplicaRoutingConnectionFactory main;
+    private final Map<String, ConnectionFactory> shards = new LinkedHashMap<>();
+    private final ShardMap shardMap;
+
+    public ShardRoutingConnectionFactory(ReplicaRoutingConnectionFactory main, Map<String, ConnectionFactory> others,
+                                         ShardMap shardMap) {
+        this.main = main;
+        this.shardMap = shardMap;
+        this.shards.put(ShardingProperties.MAIN, main);
+        this.shards.putAll(others);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        if (shards.size() == 1) {
+            return main.create();
+        }
+        return Mono.deferContextual(context -> {
+            String shard = ShardRouting.from(context);
+            if (shard == null) {
+                UUID tenantId = TenantContext.find(context);
+                shard = tenantId != null ? shardMap.shardOf(tenantId) : ShardingProperties.MAIN;
+            }
+            ConnectionFactory target = shards.get(shard);
+            if (target == null) {
+                return Mono.error(new IllegalStateException("Unknown shard '" + shard + "'"));
+            }
+            return Mono.from(target.create());
+        });
+    }
+
+    public ReplicaRoutingConnectionFactory getMain() {
+        return main;
+    }
+
+    /**
+     * The shard's connection factory, or {@code null} when no such shard is configured.
+     */
+    public ConnectionFactory getShard(String name) {
+        return shards.get(name);
+    }
+
+    public Set<String> getShardNames() {
+        return shards.keySet();
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return main.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return main;
+    }
+
+    @Override
+    public void dispose() {
+        shards.values().forEach(shard -> {
+            if (shard instanceof Disposable disposable) {
+                disposable.dispose();
+            }
+        });
+    }
+}
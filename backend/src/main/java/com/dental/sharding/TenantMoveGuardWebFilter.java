@@ -0,0 +1,67 @@
+package com.dental.sharding;
+
+import com.dental.config.ShardingProperties;
+import com.dental.security.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Freezes writes of a tenant while {@link TenantMover} copies it to another shard: its
+ * non-GET API requests get 503 with Retry-After, its reads keep being served from the
+ * source shard. Runs after the security chain, which puts the tenant on the exchange,
+ * and before admission control so refused writes do not take a slot.
+ */
+@Component
+@Order(-1)
+public class TenantMoveGuardWebFilter implements WebFilter {
+
+    private static final byte[] BODY =
+            "{\"error\":\"This clinic's data is being moved, please retry shortly\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ShardingProperties properties;
+    private final ShardMap shardMap;
+    private final Counter rejected;
+
+    public TenantMoveGuardWebFilter(ShardingProperties properties, ShardMap shardMap, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.shardMap = shardMap;
+        this.rejected = Counter.builder("dental.sharding.writes.rejected")
+                .description("Tenant writes refused while the tenant was being moved between shards")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        UUID tenantId = exchange.getAttribute(TenantContext.TENANT_ID_ATTRIBUTE);
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (tenantId == null || HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)
+                || !shardMap.isMoving(tenantId) || !exchange.getRequest().getPath().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        rejected.increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, properties.getMoveDrainTime().toSeconds())));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = response.bufferFactory().wrap(BODY);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
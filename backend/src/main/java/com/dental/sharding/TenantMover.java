@@ -0,0 +1,322 @@
+package com.dental.sharding;
+
+import com.dental.config.ShardingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.ReadableMetadata;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Moves a tenant to another shard while the application keeps serving it:
+ * <ol>
+ *   <li>marks the tenant MOVING in the directory; {@link TenantMoveGuardWebFilter} then
+ *       answers its writes with 503 while reads keep going to the source shard;</li>
+ *   <li>waits {@code move-drain-time} so every node has seen it and in-flight writes ended;</li>
+ *   <li>copies the tenant's rows from one REPEATABLE READ snapshot of the source into a
+ *       single target transaction (clearing leftovers of an earlier attempt), checks the
+ *       row counts and commits;</li>
+ *   <li>points the directory at the target and waits again, then deletes the source rows.</li>
+ * </ol>
+ * A failure before the switch puts the tenant back ACTIVE on the source. The tenants row
+ * always stays on main, which is the directory every node reads plans and placements from:
+ * it is copied to other shards (their foreign keys need it) but never deleted from, or
+ * copied over, main's.
+ */
+@Component
+public class TenantMover {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantMover.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    /** Tenant-scoped tables in foreign key order; users.staff_id is filled in after staff. */
+    private static final List<Table> TABLES = List.of(
+            new Table("tenants", "id", null),
+            new Table("users", "tenant_id", "staff_id"),
+            new Table("staff", "tenant_id", null),
+            new Table("patients", "tenant_id", null),
+            new Table("appointments", "tenant_id", null),
+            new Table("appointments_archive", "tenant_id", null),
+            new Table("tenant_stats", "tenant_id", null),
+            new Table("tenant_daily_stats", "tenant_id", null),
+            new Table("daily_tenant_rollup", "tenant_id", null),
+            new Table("daily_tenant_rollup_dirty", "tenant_id", null),
+            new Table("tenant_entity_versions", "tenant_id", null));
+
+    private final ShardRoutingConnectionFactory connectionFactory;
+    private final ShardMap shardMap;
+    private final DatabaseClient databaseClient;
+    private final ShardingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public TenantMover(ShardRoutingConnectionFactory connectionFactory, ShardMap shardMap,
+                       DatabaseClient databaseClient, ShardingProperties properties, MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.shardMap = shardMap;
+        this.databaseClient = databaseClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Mono<MoveReport> move(UUID tenantId, String target) {
+        if (!properties.isEnabled()) {
+            return Mono.error(new IllegalStateException("Sharding is disabled"));
+        }
+        String source = shardMap.shardOf(tenantId);
+        ConnectionFactory sourceShard = connectionFactory.getShard(source);
+        ConnectionFactory targetShard = connectionFactory.getShard(target);
+        if (targetShard == null) {
+            return Mono.error(new IllegalArgumentException("Unknown shard '" + target + "'"));
+        }
+        if (sourceShard == null) {
+            return Mono.error(new IllegalStateException("Tenant " + tenantId + " is on unknown shard '" + source + "'"));
+        }
+        if (source.equals(target)) {
+            return Mono.error(new IllegalArgumentException("Tenant " + tenantId + " is already on '" + target + "'"));
+        }
+        if (shardMap.isMoving(tenantId)) {
+            return Mono.error(new IllegalStateException("Tenant " + tenantId + " is already being moved"));
+        }
+        if (!running.compareAndSet(false, true)) {
+            return Mono.error(new IllegalStateException("Another tenant move is running on this node"));
+        }
+        long start = System.nanoTime();
+        Duration drain = properties.getMoveDrainTime();
+        log.info("Moving tenant {} from shard '{}' to '{}'", tenantId, source, target);
+        return place(tenantId, source, ShardMap.MOVING)
+                .then(Mono.delay(drain))
+                .then(copy(tenantId, sourceShard, targetShard, ShardingProperties.MAIN.equals(target)))
+                .onErrorResume(e -> place(tenantId, source, ShardMap.ACTIVE).then(Mono.error(e)))
+                .flatMap(copied -> place(tenantId, target, ShardMap.ACTIVE)
+                        .then(Mono.delay(drain))
+                        .then(inTransaction(sourceShard, connection ->
+                                delete(connection, tenantId, ShardingProperties.MAIN.equals(source))))
+                        .thenReturn(new MoveReport(tenantId, source, target, copied,
+                                Duration.ofNanos(System.nanoTime() - start).toMillis())))
+                .doOnSuccess(report -> {
+                    moves("success").increment();
+                    log.info("Moved tenant {} from '{}' to '{}' in {}ms: {}",
+                            tenantId, source, target, report.millis(), report.rows());
+                })
+                .doOnError(e -> {
+                    moves("failure").increment();
+                    log.error("Moving tenant {} from '{}' to '{}' failed: {}", tenantId, source, target, e.toString());
+                })
+                .doFinally(signal -> running.set(false));
+    }
+
+    private Counter moves(String outcome) {
+        return Counter.builder("dental.sharding.moves")
+                .description("Tenant moves between shards")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Mono<Void> place(UUID tenantId, String shard, String status) {
+        return ShardRouting.on(ShardingProperties.MAIN, databaseClient.sql(
+                        "INSERT INTO tenant_shards (tenant_id, shard, status) VALUES (:tenantId, :shard, :status) " +
+                        "ON CONFLICT (tenant_id) DO UPDATE SET shard = EXCLUDED.shard, status = EXCLUDED.status, updated_at = NOW()")
+                        .bind("tenantId", tenantId)
+                        .bind("shard", shard)
+                        .bind("status", status)
+                        .fetch()
+                        .rowsUpdated())
+                .doOnSuccess(updated -> shardMap.put(tenantId, new ShardMap.Placement(shard, status)))
+                .then();
+    }
+
+    private Mono<Map<String, Long>> copy(UUID tenantId, ConnectionFactory sourceShard, ConnectionFactory targetShard,
+                                         boolean targetIsMain) {
+        return Mono.usingWhen(sourceShard.create(),
+                source -> Mono.from(source.beginTransaction(IsolationLevel.REPEATABLE_READ))
+                        .then(inTransaction(targetShard, target -> delete(target, tenantId, targetIsMain)
+                                .then(Flux.fromIterable(TABLES)
+                                        .filter(table -> !(targetIsMain && table.isTenantRow()))
+                                        .concatMap(table -> copyTable(source, target, table, tenantId)
+                                                .map(rows -> Map.entry(table.name(), rows)))
+                                        .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new))
+                                .flatMap(copied -> copyDeferred(source, target, tenantId)
+                                        .then(verify(source, target, tenantId))
+                                        .thenReturn(copied)))),
+                TenantMover::commitAndClose,
+                (source, e) -> rollbackAndClose(source),
+                TenantMover::rollbackAndClose);
+    }
+
+    private Mono<Long> copyTable(Connection source, Connection target, Table table, UUID tenantId) {
+        return Flux.from(source.createStatement(
+                                "SELECT * FROM " + table.name() + " WHERE " + table.tenantColumn() + " = $1")
+                        .bind("$1", tenantId)
+                        .execute())
+                .flatMap(result -> result.map((row, metadata) -> CopiedRow.of(row, metadata, table.deferredColumn())))
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> insert(target, table.name(), batch))
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> insert(Connection target, String table, List<CopiedRow> batch) {
+        List<String> columns = batch.get(0).columns();
+        String placeholders = IntStream.rangeClosed(1, columns.size()).mapToObj(i -> "$" + i).collect(Collectors.joining(", "));
+        Statement statement = target.createStatement(
+                "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders + ")");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            batch.get(i).bindTo(statement);
+        }
+        return rowsUpdated(statement);
+    }
+
+    /** Restores the columns left null during the copy to break foreign key cycles. */
+    private Mono<Void> copyDeferred(Connection source, Connection target, UUID tenantId) {
+        return Flux.fromIterable(TABLES)
+                .filter(table -> table.deferredColumn() != null)
+                .concatMap(table -> Flux.from(source.createStatement(
+                                        "SELECT id, " + table.deferredColumn() + " FROM " + table.name() +
+                                        " WHERE " + table.tenantColumn() + " = $1 AND " + table.deferredColumn() + " IS NOT NULL")
+                                .bind("$1", tenantId)
+                                .execute())
+                        .flatMap(result -> result.map((row, metadata) -> new Object[]{row.get(0), row.get(1)}))
+                        .buffer(BATCH_SIZE)
+                        .concatMap(batch -> {
+                            Statement statement = target.createStatement(
+                                    "UPDATE " + table.name() + " SET " + table.deferredColumn() + " = $1 WHERE id = $2");
+                            for (int i = 0; i < batch.size(); i++) {
+                                if (i > 0) {
+                                    statement.add();
+                                }
+                                statement.bind("$1", batch.get(i)[1]).bind("$2", batch.get(i)[0]);
+                            }
+                            return rowsUpdated(statement);
+                        }))
+                .then();
+    }
+
+    private Mono<Void> verify(Connection source, Connection target, UUID tenantId) {
+        return Flux.fromIterable(TABLES)
+                .concatMap(table -> Mono.zip(count(source, table, tenantId), count(target, table, tenantId))
+                        .flatMap(counts -> counts.getT1().equals(counts.getT2())
+                                ? Mono.<Void>empty()
+                                : Mono.error(new IllegalStateException(String.format(
+                                        "Row count mismatch in %s after copy: source %d, target %d",
+                                        table.name(), counts.getT1(), counts.getT2())))))
+                .then();
+    }
+
+    private Mono<Long> count(Connection connection, Table table, UUID tenantId) {
+        return Flux.from(connection.createStatement(
+                                "SELECT COUNT(*) FROM " + table.name() + " WHERE " + table.tenantColumn() + " = $1")
+                        .bind("$1", tenantId)
+                        .execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)))
+                .next();
+    }
+
+    private Mono<Void> delete(Connection connection, UUID tenantId, boolean keepTenantRow) {
+        List<String> statements = new ArrayList<>();
+        TABLES.stream()
+                .filter(table -> table.deferredColumn() != null)
+                .forEach(table -> statements.add("UPDATE " + table.name() + " SET " + table.deferredColumn() +
+                        " = NULL WHERE " + table.tenantColumn() + " = $1"));
+        for (int i = TABLES.size() - 1; i >= 0; i--) {
+            Table table = TABLES.get(i);
+            if (!(keepTenantRow && table.isTenantRow())) {
+                statements.add("DELETE FROM " + table.name() + " WHERE " + table.tenantColumn() + " = $1");
+            }
+        }
+        return Flux.fromIterable(statements)
+                .concatMap(sql -> rowsUpdated(connection.createStatement(sql).bind("$1", tenantId)))
+                .then();
+    }
+
+    private static <T> Mono<T> inTransaction(ConnectionFactory shard, Function<Connection, Mono<T>> work) {
+        return Mono.usingWhen(shard.create(),
+                connection -> Mono.from(connection.beginTransaction()).then(work.apply(connection)),
+                TenantMover::commitAndClose,
+                (connection, e) -> rollbackAndClose(connection),
+                TenantMover::rollbackAndClose);
+    }
+
+    private static Mono<Void> commitAndClose(Connection connection) {
+        return Mono.from(connection.commitTransaction())
+                .onErrorResume(e -> Mono.from(connection.close()).then(Mono.error(e)))
+                .then(Mono.from(connection.close()));
+    }
+
+    private static Mono<Void> rollbackAndClose(Connection connection) {
+        return Mono.from(connection.rollbackTransaction())
+                .onErrorResume(e -> Mono.empty())
+                .then(Mono.from(connection.close()));
+    }
+
+    private static Mono<Long> rowsUpdated(Statement statement) {
+        return Flux.from(statement.execute())
+                .flatMap(Result::getRowsUpdated)
+                .reduce(0L, Long::sum);
+    }
+
+    private record Table(String name, String tenantColumn, String deferredColumn) {
+
+        boolean isTenantRow() {
+            return "tenants".equals(name);
+        }
+    }
+
+    /**
+     * One source row, by column name, with the column Java types needed to bind nulls.
+     */
+    private record CopiedRow(List<String> columns, List<Object> values, List<Class<?>> types) {
+
+        static CopiedRow of(Row row, RowMetadata metadata, String nullColumn) {
+            List<String> columns = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            List<Class<?>> types = new ArrayList<>();
+            List<? extends ReadableMetadata> columnMetadatas = metadata.getColumnMetadatas();
+            for (int i = 0; i < columnMetadatas.size(); i++) {
+                ReadableMetadata column = columnMetadatas.get(i);
+                columns.add(column.getName());
+                values.add(column.getName().equals(nullColumn) ? null : row.get(i));
+                types.add(column.getJavaType() != null ? column.getJavaType() : String.class);
+            }
+            return new CopiedRow(columns, values, types);
+        }
+
+        void bindTo(Statement statement) {
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) == null) {
+                    statement.bindNull(i, types.get(i));
+                } else {
+                    statement.bind(i, values.get(i));
+                }
+            }
+        }
+    }
+
+    public record MoveReport(UUID tenantId, String from, String to, Map<String, Long> rows, long millis) {
+    }
+}
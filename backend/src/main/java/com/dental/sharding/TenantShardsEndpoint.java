@@ -0,0 +1,49 @@
+package com.dental.sharding;
+
+import com.dental.config.ShardingProperties;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Operator tool for the shard directory ({@code /actuator/tenantshards}, not exposed by
+ * default): GET lists the shards and every tenant placed off main, POST with
+ * {@code tenantId} and {@code shard} moves a tenant online and answers when it is done.
+ */
+@Component
+@Endpoint(id = "tenantshards")
+public class TenantShardsEndpoint {
+
+    private final ShardingProperties properties;
+    private final ShardMap shardMap;
+    private final TenantMover tenantMover;
+
+    public TenantShardsEndpoint(ShardingProperties properties, ShardMap shardMap, TenantMover tenantMover) {
+        this.properties = properties;
+        this.shardMap = shardMap;
+        this.tenantMover = tenantMover;
+    }
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", properties.isEnabled());
+        body.put("shards", properties.shardNames());
+        body.put("placements", shardMap.placements());
+        return body;
+    }
+
+    @WriteOperation
+    public Mono<TenantMover.MoveReport> move(String tenantId, String shard) {
+        // The move keeps running if the caller disconnects: stopping halfway would leave the tenant frozen
+        Mono<TenantMover.MoveReport> move = tenantMover.move(UUID.fromString(tenantId), shard).cache();
+        move.subscribe(report -> { }, e -> { });
+        return move;
+    }
+}
@@ -0,0 +1,304 @@
+package com.dental.warmup;
+
+import com.dental.cache.TenantDataVersions;
+import com.dental.controller.DentistController;
+import com.dental.db.ReplicaRoutingConnectionFactory;
+import com.dental.sharding.ShardRoutingConnectionFactory;
+import com.dental.security.JwtUtil;
+import com.dental.security.TenantContext;
+import com.dental.service.AppointmentService;
+import com.dental.service.DashboardService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warms a freshly started node before it is marked ready: opens the pools' idle
+ * connections, pre-loads the entity versions of the busiest tenants, runs their
+ * dashboard and calendar queries through the services and fills their dentist response
+ * cache entry through {@link DentistController} (no request, no token is made up on their
+ * behalf), and replays the main routes (JWT filter, appointment listing,
+ * dashboard) over HTTP against the internal warm-up tenant until the JIT has compiled
+ * the hot paths. The replayed requests bypass {@link com.dental.cache.ResponseCache} and
+ * {@link com.dental.cache.SingleFlight} (see {@link WarmUpRequestWebFilter}), so every
+ * round runs the queries and the DTO mapping rather than the cache hit.
+ * <p>
+ * Runs once the server is listening ({@link ApplicationReadyEvent}); readiness stays
+ * OUT_OF_SERVICE through {@link WarmUpHealthIndicator} until it completes, fails or
+ * times out. The first and last rounds run alone and their latencies are exported, so
+ * the effect of the warm-up is visible per deploy.
+ */
+@Component
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class StartupWarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private static final String BUSIEST_TENANTS_SQL =
+            "SELECT d.tenant_id FROM tenant_daily_stats d " +
+            "JOIN tenants t ON t.id = d.tenant_id " +
+            "WHERE t.active AND d.stat_date >= :from AND d.stat_date <= :today " +
+            "GROUP BY d.tenant_id ORDER BY SUM(d.appointments) DESC LIMIT :limit";
+
+    /**
+     * Headers of the cache entry to fill: what the front end sends for the dentist list.
+     */
+    private static final HttpHeaders JSON_REQUEST = jsonRequest();
+
+    private final WarmUpProperties properties;
+    private final WarmUpHealthIndicator healthIndicator;
+    private final WarmUpRequestWebFilter warmUpRequests;
+    private final WebClient.Builder webClientBuilder;
+    private final JwtUtil jwtUtil;
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseClient databaseClient;
+    private final TenantDataVersions versions;
+    private final AppointmentService appointmentService;
+    private final DashboardService dashboardService;
+    private final DentistController dentistController;
+    private final MeterRegistry meterRegistry;
+    private final Counter requestsOk;
+    private final Counter requestsFailed;
+    private final AtomicLong poolConnections = new AtomicLong();
+    private final AtomicLong tenantsPreloaded = new AtomicLong();
+    private final AtomicLong firstRoundMillis = new AtomicLong();
+    private final AtomicLong lastRoundMillis = new AtomicLong();
+
+    public StartupWarmUp(WarmUpProperties properties,
+                         WarmUpHealthIndicator healthIndicator,
+                         WarmUpRequestWebFilter warmUpRequests,
+                         WebClient.Builder webClientBuilder,
+                         JwtUtil jwtUtil,
+                         ConnectionFactory connectionFactory,
+                         DatabaseClient databaseClient,
+                         TenantDataVersions versions,
+                         AppointmentService appointmentService,
+                         DashboardService dashboardService,
+                         DentistController dentistController,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.healthIndicator = healthIndicator;
+        this.warmUpRequests = warmUpRequests;
+        this.webClientBuilder = webClientBuilder;
+        this.jwtUtil = jwtUtil;
+        this.connectionFactory = connectionFactory;
+        this.databaseClient = databaseClient;
+        this.versions = versions;
+        this.appointmentService = appointmentService;
+        this.dashboardService = dashboardService;
+        this.dentistController = dentistController;
+        this.meterRegistry = meterRegistry;
+        this.requestsOk = requestCounter("success");
+        this.requestsFailed = requestCounter("error");
+        Gauge.builder("dental.warmup.pool.connections", poolConnections, AtomicLong::get)
+                .description("Pool connections opened by the warm-up")
+                .register(meterRegistry);
+        Gauge.builder("dental.warmup.tenants.preloaded", tenantsPreloaded, AtomicLong::get)
+                .description("Tenants whose versions, hot queries and dentist cache entry were pre-loaded")
+                .register(meterRegistry);
+        Gauge.builder("dental.warmup.round.latency", firstRoundMillis, AtomicLong::get)
+                .description("Wall time of one pass over the warm-up routes")
+                .tag("round", "first")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("dental.warmup.round.latency", lastRoundMillis, AtomicLong::get)
+                .description("Wall time of one pass over the warm-up routes")
+                .tag("round", "last")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    private Counter requestCounter(String outcome) {
+        return Counter.builder("dental.warmup.requests")
+                .description("Synthetic requests sent by the warm-up")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (!properties.isEnabled()) {
+            healthIndicator.markDone();
+            return;
+        }
+        Integer port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            log.warn("Warm-up skipped: no local server port");
+            healthIndicator.markDone();
+            return;
+        }
+        warmUp(port).subscribe();
+    }
+
+    Mono<Void> warmUp(int port) {
+        WebClient client = webClientBuilder.clone().baseUrl("http://localhost:" + port).build();
+        long start = System.nanoTime();
+        return openPoolConnections()
+                .then(Mono.defer(this::preloadTenants))
+                .then(Mono.defer(() -> replayRoutes(client)))
+                .timeout(properties.getTimeout())
+                .then(Mono.fromRunnable(() -> finish(start, "success")))
+                .onErrorResume(e -> {
+                    log.warn("Warm-up did not complete, marking ready anyway: {}", e.toString());
+                    finish(start, "failure");
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void finish(long start, String outcome) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Timer.builder("dental.warmup.duration")
+                .description("Time from application ready to warm-up complete")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed);
+        healthIndicator.markDone();
+        log.info("Warm-up {} in {}ms: {} pool connections, {} tenants pre-loaded, {} requests ({} failed), " +
+                        "round latency {}ms -> {}ms",
+                outcome, elapsed.toMillis(), poolConnections.get(), tenantsPreloaded.get(),
+                (long) (requestsOk.count() + requestsFailed.count()), (long) requestsFailed.count(),
+                firstRoundMillis.get(), lastRoundMillis.get());
+    }
+
+    private Mono<Void> openPoolConnections() {
+        List<ConnectionFactory> factories = new ArrayList<>();
+        if (connectionFactory instanceof ShardRoutingConnectionFactory shards) {
+            shards.getShardNames().forEach(name -> factories.add(shards.getShard(name)));
+        } else {
+            factories.add(connectionFactory);
+        }
+        if (factories.get(0) instanceof ReplicaRoutingConnectionFactory main && main.getReplica() != null) {
+            factories.add(main.getReplica());
+        }
+        return Flux.fromIterable(factories)
+                .mapNotNull(StartupWarmUp::poolOf)
+                .flatMap(ConnectionPool::warmup)
+                .reduce(0, Integer::sum)
+                .doOnNext(poolConnections::set)
+                .then();
+    }
+
+    private static ConnectionPool poolOf(Object factory) {
+        while (!(factory instanceof ConnectionPool) && factory instanceof Wrapped<?> wrapped) {
+            factory = wrapped.unwrap();
+        }
+        return factory instanceof ConnectionPool pool ? pool : null;
+    }
+
+    private Mono<Void> preloadTenants() {
+        LocalDate today = LocalDate.now();
+        return databaseClient.sql(BUSIEST_TENANTS_SQL)
+                .bind("from", today.minusDays(7))
+                .bind("today", today)
+                .bind("limit", properties.getPreloadTenants())
+                .map(row -> row.get("tenant_id", UUID.class))
+                .all()
+                .flatMap(tenantId -> preloadTenant(tenantId, today)
+                                .doOnSuccess(v -> tenantsPreloaded.incrementAndGet())
+                                .onErrorResume(e -> {
+                                    log.debug("Warm-up pre-load failed for tenant {}: {}", tenantId, e.toString());
+                                    return Mono.empty();
+                                }),
+                        properties.getConcurrency())
+                .then();
+    }
+
+    private Mono<Void> preloadTenant(UUID tenantId, LocalDate today) {
+        return versions.current(tenantId)
+                .then(dashboardService.getStatsForTenant(tenantId))
+                .thenMany(appointmentService.getAppointmentsByDateRange(
+                        tenantId, today.atStartOfDay(), today.atTime(LocalTime.MAX)))
+                .then(dentistController.respondDentists(tenantId, JSON_REQUEST))
+                .doOnNext(response -> DataBufferUtils.release(response.getBody()))
+                .then()
+                .contextWrite(TenantContext.withTenantId(tenantId));
+    }
+
+    private static HttpHeaders jsonRequest() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private Mono<Void> replayRoutes(WebClient client) {
+        UUID tenantId = properties.getTenantId();
+        String token = jwtUtil.generateToken(properties.getUserId(), tenantId, "warmup@internal", "ADMIN");
+        String today = LocalDate.now().toString();
+        List<String> routes = List.of(
+                "/api/appointments",
+                "/api/appointments?startDate=" + today + "&endDate=" + today,
+                "/api/dashboard/stats",
+                "/api/dentists",
+                "/api/patients");
+        int middleRounds = Math.max(0, properties.getRounds() - 2);
+        return timedRound(client, token, routes, firstRoundMillis)
+                .then(Flux.range(0, middleRounds)
+                        .flatMap(i -> round(client, token, routes), properties.getConcurrency())
+                        .then())
+                .then(timedRound(client, token, routes, lastRoundMillis));
+    }
+
+    private Mono<Void> timedRound(WebClient client, String token, List<String> routes, AtomicLong millis) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return round(client, token, routes)
+                    .doOnSuccess(v -> millis.set(Duration.ofNanos(System.nanoTime() - start).toMillis()));
+        });
+    }
+
+    private Mono<Void> round(WebClient client, String token, List<String> routes) {
+        return Flux.fromIterable(routes)
+                .concatMap(route -> get(client, token, route))
+                .then();
+    }
+
+    private Mono<Void> get(WebClient client, String token, String uri) {
+        return client.get()
+                .uri(uri)
+                .headers(headers -> {
+                    headers.setBearerAuth(token);
+                    headers.set(WarmUpRequestWebFilter.WARM_UP_HEADER, warmUpRequests.getToken());
+                    headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+                })
+                .exchangeToMono(response -> response.releaseBody()
+                        .then(Mono.fromRunnable(() -> {
+                            if (response.statusCode().is2xxSuccessful()) {
+                                requestsOk.increment();
+                            } else {
+                                requestsFailed.increment();
+                            }
+                        })))
+                .onErrorResume(e -> {
+                    requestsFailed.increment();
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
@@ -0,0 +1,25 @@
+package com.dental.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Part of the readiness group ({@code management.endpoint.health.group.readiness}):
+ * OUT_OF_SERVICE until {@link StartupWarmUp} has finished, so the orchestrator keeps
+ * traffic away from a cold node.
+ */
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private volatile boolean done;
+
+    void markDone() {
+        this.done = true;
+    }
+
+    @Override
+    public Health health() {
+        return done ? Health.up().build() : Health.outOfService().withDetail("warmUp", "in progress").build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.dental.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Startup warm-up run by {@link StartupWarmUp} before the readiness probe reports UP.
+ */
+@ConfigurationProperties(prefix = "dental.warmup")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+    /** Internal tenant the synthetic requests run against (seeded in init.sql, inactive). */
+    private UUID tenantId = UUID.fromString("ffffffff-0000-4000-8000-000000000001");
+    /** Subject of the warm-up JWT. */
+    private UUID userId = UUID.fromString("ffffffff-0000-4000-8000-000000000002");
+    /** Rounds over the main routes; the first and last run alone to measure the effect. */
+    private int rounds = 100;
+    private int concurrency = 4;
+    /** Busiest tenants (appointments over the last week) whose versions, hot queries and dentist list are pre-loaded. */
+    private int preloadTenants = 50;
+    /** Readiness flips to UP after this long even if the warm-up has not finished. */
+    private Duration timeout = Duration.ofSeconds(60);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public UUID getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(UUID tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(int rounds) {
+        this.rounds = rounds;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getPreloadTenants() {
+        return preloadTenants;
+    }
+
+    public void setPreloadTenants(int preloadTenants) {
+        this.preloadTenants = preloadTenants;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,39 @@
+package com.dental.warmup;
+
+import com.dental.cache.CacheBypass;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Recognises the requests replayed by {@link StartupWarmUp} and runs them with
+ * {@link CacheBypass}, so every round goes through the database and the DTO mapping.
+ * They carry a random token generated when this node starts and only ever sent to
+ * itself over loopback; a client cannot guess it to skip the caches.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class WarmUpRequestWebFilter implements WebFilter {
+
+    public static final String WARM_UP_HEADER = "X-Warm-Up";
+
+    private final String token = UUID.randomUUID().toString();
+
+    String getToken() {
+        return token;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (token.equals(exchange.getRequest().getHeaders().getFirst(WARM_UP_HEADER))) {
+            return chain.filter(exchange).contextWrite(CacheBypass.enable());
+        }
+        return chain.filter(exchange);
+    }
+}
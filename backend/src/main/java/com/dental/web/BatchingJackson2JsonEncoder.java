@@ -0,0 +1,134 @@
+package com.dental.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON encoder that writes streaming bodies in batches instead of one buffer per element.
+ * Batching applies only when the client asked for a streaming type through Accept:
+ * <ul>
+ *   <li>{@code application/x-ndjson}: one JSON document per line;</li>
+ *   <li>{@code application/json;stream=true}: a regular JSON array, sent in chunks.</li>
+ * </ul>
+ * WebFlux flushes every buffer of a streaming type, so that is a flush per batch rather
+ * than per row. A batch is closed when it reaches {@code batchSize} elements or
+ * {@code maxDelay} after its first element, so slow sources still see rows promptly. Every
+ * other body (single values, and plain {@code application/json} arrays) goes through the
+ * regular encoder unchanged. Rows are written with a writer for the declared element type
+ * and the request's hints (e.g. {@code @JsonView}), as the regular encoder would.
+ */
+public class BatchingJackson2JsonEncoder extends Jackson2JsonEncoder {
+
+    /**
+     * Opt-in for a JSON array body written and flushed in batches.
+     */
+    public static final MediaType APPLICATION_JSON_STREAM =
+            new MediaType(MediaType.APPLICATION_JSON, Map.of("stream", "true"));
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final int batchSize;
+    private final Duration maxDelay;
+
+    public BatchingJackson2JsonEncoder(ObjectMapper objectMapper, int batchSize, Duration maxDelay) {
+        super(objectMapper);
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        List<MediaType> streaming = new ArrayList<>(getStreamingMediaTypes());
+        streaming.add(APPLICATION_JSON_STREAM);
+        setStreamingMediaTypes(streaming);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono || !isStreaming(mimeType)) {
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+        ObjectWriter writer = writer(elementType, mimeType, hints);
+        if (!APPLICATION_JSON_STREAM.isCompatibleWith(mimeType)) {
+            return Flux.<Object>from(inputStream)
+                    .bufferTimeout(batchSize, maxDelay, true)
+                    .map(batch -> bufferFactory.wrap(writeLines(writer, batch)));
+        }
+        return Flux.<Object>from(inputStream)
+                .bufferTimeout(batchSize, maxDelay, true)
+                .index()
+                .map(batch -> bufferFactory.wrap(writeArrayChunk(writer, batch.getT2(), batch.getT1() == 0)))
+                .switchIfEmpty(Mono.fromCallable(() -> bufferFactory.wrap(new byte[] {'['})))
+                .concatWith(Mono.fromCallable(() -> bufferFactory.wrap(new byte[] {']'})));
+    }
+
+    /**
+     * A streaming type including its parameters, so plain {@code application/json} is not
+     * taken for {@code application/json;stream=true}.
+     */
+    private boolean isStreaming(MimeType mimeType) {
+        return mimeType != null && getStreamingMediaTypes().stream()
+                .anyMatch(streaming -> streaming.isCompatibleWith(mimeType)
+                        && streaming.getParameters().entrySet().stream()
+                                .allMatch(parameter -> parameter.getValue().equalsIgnoreCase(
+                                        mimeType.getParameter(parameter.getKey()))));
+    }
+
+    private ObjectWriter writer(ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        Class<?> jsonView = hints != null ? (Class<?>) hints.get(JSON_VIEW_HINT) : null;
+        ObjectWriter writer = jsonView != null
+                ? getObjectMapper().writerWithView(jsonView)
+                : getObjectMapper().writer();
+        if (elementType.resolve(Object.class) != Object.class) {
+            writer = writer.forType(getJavaType(elementType.getType(), null));
+        }
+        return customizeWriter(writer, mimeType, elementType, hints);
+    }
+
+    private byte[] writeLines(ObjectWriter writer, List<Object> batch) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 256);
+            for (Object value : batch) {
+                out.write(writer.writeValueAsBytes(value));
+                out.write(NEWLINE);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The elements of one batch, opening the array on the first batch and continuing it
+     * with a comma on the next ones; the closing bracket follows the last batch.
+     */
+    private byte[] writeArrayChunk(ObjectWriter writer, List<Object> batch, boolean first) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 256 + 1);
+            out.write(first ? '[' : ',');
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(writer.writeValueAsBytes(batch.get(i)));
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
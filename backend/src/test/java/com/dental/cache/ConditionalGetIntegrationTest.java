@@ -0,0 +1,46 @@
+package com.dental.cache;
+
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ETags name the negotiated representation: a tag taken from a JSON body validates JSON
+ * requests of the same URL, never NDJSON ones.
+ */
+class ConditionalGetIntegrationTest extends PostgresIntegrationTest {
+
+    @Test
+    void etagDependsOnTheNegotiatedRepresentation() {
+        Tenant tenant = tenants.create(3);
+        String jsonTag = etag(tenant, MediaType.APPLICATION_JSON, null, HttpStatus.OK);
+
+        String ndjsonTag = etag(tenant, MediaType.APPLICATION_NDJSON, jsonTag, HttpStatus.OK);
+
+        assertThat(ndjsonTag).isNotEqualTo(jsonTag);
+        assertThat(etag(tenant, MediaType.APPLICATION_JSON, jsonTag, HttpStatus.NOT_MODIFIED)).isEqualTo(jsonTag);
+        assertThat(etag(tenant, MediaType.APPLICATION_NDJSON, ndjsonTag, HttpStatus.NOT_MODIFIED)).isEqualTo(ndjsonTag);
+    }
+
+    private String etag(Tenant tenant, MediaType accept, String ifNoneMatch, HttpStatus expected) {
+        return webTestClient.get().uri("/api/patients")
+                .accept(accept)
+                .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                .headers(headers -> {
+                    if (ifNoneMatch != null) {
+                        headers.setIfNoneMatch(ifNoneMatch);
+                    }
+                })
+                .exchange()
+                .expectStatus().isEqualTo(expected)
+                .expectHeader().value(HttpHeaders.VARY, vary -> assertThat(vary).contains(HttpHeaders.ACCEPT))
+                .returnResult(byte[].class)
+                .getResponseHeaders()
+                .getETag();
+    }
+}
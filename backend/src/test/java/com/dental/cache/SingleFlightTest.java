@@ -0,0 +1,96 @@
+package com.dental.cache;
+
+import com.dental.config.DeadlineProperties;
+import com.dental.db.DbBudget;
+import com.dental.db.DbBudgetExceededException;
+import com.dental.db.DeadlineExceededException;
+import com.dental.db.RequestDbStats;
+import com.dental.db.RequestDeadline;
+import com.dental.security.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private static final UUID TENANT = UUID.randomUUID();
+
+    private final SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), new DeadlineProperties());
+
+    @Test
+    void loaderRunsWithOnlyTheTenantInItsContext() {
+        AtomicReference<RequestDbStats> seenStats = new AtomicReference<>();
+        AtomicReference<UUID> seenTenant = new AtomicReference<>();
+        RequestDbStats callerStats = new RequestDbStats(DbBudget.UNLIMITED);
+
+        Mono<String> call = singleFlight.execute(TENANT, "q", null, () -> Mono.deferContextual(ctx -> {
+            seenStats.set(RequestDbStats.from(ctx));
+            seenTenant.set(TenantContext.find(ctx));
+            return Mono.just("v");
+        }));
+
+        StepVerifier.create(call.contextWrite(RequestDbStats.withStats(callerStats)))
+                .expectNext("v")
+                .verifyComplete();
+        assertThat(seenStats.get()).isNull();
+        assertThat(seenTenant.get()).isEqualTo(TENANT);
+    }
+
+    @Test
+    void firstCallerCancellingDoesNotCancelTheLoadForJoiners() {
+        Sinks.One<String> result = Sinks.one();
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> call = singleFlight.execute(TENANT, "q", null, () -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        });
+
+        Disposable first = call.subscribe();
+        StepVerifier.create(call)
+                .then(first::dispose)
+                .then(() -> result.tryEmitValue("v"))
+                .expectNext("v")
+                .verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void callerOverItsBudgetIsRefusedWithoutFailingJoiners() {
+        Sinks.One<String> result = Sinks.one();
+        RequestDbStats exhausted = new RequestDbStats(new DbBudget(0, Long.MAX_VALUE, Duration.ofDays(1), true));
+        exhausted.recordStatement(1);
+        Mono<String> call = singleFlight.execute(TENANT, "q", null, result::asMono);
+
+        StepVerifier.create(call)
+                .then(() -> StepVerifier.create(call.contextWrite(RequestDbStats.withStats(exhausted)))
+                        .expectError(DbBudgetExceededException.class)
+                        .verify())
+                .then(() -> result.tryEmitValue("v"))
+                .expectNext("v")
+                .verifyComplete();
+    }
+
+    @Test
+    void callerPastItsDeadlineTimesOutWithoutFailingJoiners() {
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> call = singleFlight.execute(TENANT, "q", null, result::asMono);
+
+        StepVerifier.create(call)
+                .then(() -> StepVerifier.create(call.contextWrite(RequestDeadline.with(RequestDeadline.after(Duration.ofMillis(20)))))
+                        .expectError(DeadlineExceededException.class)
+                        .verify(Duration.ofSeconds(5)))
+                .then(() -> result.tryEmitValue("v"))
+                .expectNext("v")
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,51 @@
+package com.dental.cache;
+
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Versions bumped by another node (written straight to tenant_entity_versions here) must
+ * reach this node's ETags within max-staleness; this node's own writes immediately.
+ */
+class TenantDataVersionsIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TenantDataVersions versions;
+
+    @Test
+    void seesVersionsBumpedByAnotherNode() {
+        Tenant tenant = tenants.create(1);
+        long before = versions.current(tenant.id(), TenantDataVersions.PATIENTS).block();
+        long tenantBefore = versions.current(tenant.id()).block();
+
+        databaseClient.sql("INSERT INTO tenant_entity_versions (tenant_id, entity, version) VALUES (:tenantId, :entity, :version) "
+                        + "ON CONFLICT (tenant_id, entity) DO UPDATE SET version = EXCLUDED.version")
+                .bind("tenantId", tenant.id())
+                .bind("entity", TenantDataVersions.PATIENTS)
+                .bind("version", before + 1)
+                .then()
+                .block();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(versions.current(tenant.id(), TenantDataVersions.PATIENTS).block()).isEqualTo(before + 1);
+            assertThat(versions.current(tenant.id()).block()).isGreaterThan(tenantBefore);
+        });
+    }
+
+    @Test
+    void seesLocalWritesImmediately() {
+        Tenant tenant = tenants.create(1);
+        long before = versions.current(tenant.id(), TenantDataVersions.STAFF).block();
+
+        versions.bumpAfterCommit(tenant.id(), TenantDataVersions.STAFF).block();
+
+        assertThat(versions.current(tenant.id(), TenantDataVersions.STAFF).block()).isEqualTo(before + 1);
+    }
+}
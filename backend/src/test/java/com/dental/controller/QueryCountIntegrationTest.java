@@ -0,0 +1,97 @@
+package com.dental.controller;
+
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.StatementCountRecorder;
+import com.dental.support.TestTenants.Tenant;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement ceilings for the list and detail routes that used to load related rows with
+ * one lookup per row. Each route is requested for a small and a large tenant: the count
+ * must stay under the ceiling and must not grow with the number of rows returned.
+ */
+class QueryCountIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int LIST_CEILING = 3;
+    private static final int DETAIL_CEILING = 2;
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+    @Test
+    void appointmentListRunsConstantStatements() {
+        Tenant small = tenants.create(3);
+        tenants.book(small, DAY, 5);
+        Tenant large = tenants.create(40);
+        tenants.book(large, DAY, 200);
+
+        int smallCount = statements(small, "/api/appointments", 5);
+        int largeCount = statements(large, "/api/appointments", 200);
+
+        assertThat(largeCount).isLessThanOrEqualTo(LIST_CEILING).isEqualTo(smallCount);
+    }
+
+    @Test
+    void appointmentRangeRunsConstantStatements() {
+        Tenant small = tenants.create(3);
+        tenants.book(small, DAY, 5);
+        Tenant large = tenants.create(40);
+        tenants.book(large, DAY, 200);
+        String uri = "/api/appointments?startDate=" + DAY + "&endDate=" + DAY;
+
+        int smallCount = statements(small, uri, 5);
+        int largeCount = statements(large, uri, 200);
+
+        assertThat(largeCount).isLessThanOrEqualTo(LIST_CEILING).isEqualTo(smallCount);
+    }
+
+    @Test
+    void appointmentDetailRunsSingleLookup() {
+        Tenant tenant = tenants.create(3);
+        tenants.book(tenant, DAY, 1);
+        String tag = statementCounts.newTag();
+
+        webTestClient.get().uri("/api/appointments/{id}", tenants.anyAppointment(tenant))
+                .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                .header(StatementCountRecorder.REQUEST_TAG, tag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.patientName").isNotEmpty()
+                .jsonPath("$.dentistName").isNotEmpty();
+
+        assertThat(statementCounts.statementsOf(tag)).isLessThanOrEqualTo(DETAIL_CEILING);
+    }
+
+    @Test
+    void userListRunsConstantStatements() {
+        Tenant small = tenants.create(1);
+        Tenant large = tenants.create(1);
+        for (int i = 0; i < 50; i++) {
+            tenants.addUser(large, "DENTIST");
+        }
+
+        int smallCount = statements(small, "/api/users", 2);
+        int largeCount = statements(large, "/api/users", 52);
+
+        assertThat(largeCount).isLessThanOrEqualTo(LIST_CEILING).isEqualTo(smallCount);
+    }
+
+    private int statements(Tenant tenant, String uri, int expectedRows) {
+        String tag = statementCounts.newTag();
+        webTestClient.get().uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                .header(StatementCountRecorder.REQUEST_TAG, tag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(expectedRows);
+        return statementCounts.statementsOf(tag);
+    }
+}
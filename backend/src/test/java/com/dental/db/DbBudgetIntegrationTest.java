@@ -0,0 +1,43 @@
+package com.dental.db;
+
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * An enforced row budget stops a list request on the connection it already holds: the
+ * row stream is cut off and the client gets 413 instead of the whole list.
+ */
+@TestPropertySource(properties = {
+        "dental.db.budget.enforce=true",
+        "dental.db.budget.max-rows=10"
+})
+class DbBudgetIntegrationTest extends PostgresIntegrationTest {
+
+    @Test
+    void listWithinTheRowBudgetIsServed() {
+        Tenant tenant = tenants.create(1);
+
+        webTestClient.get().uri("/api/users")
+                .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void listOverTheRowBudgetIsCutOffWith413() {
+        Tenant tenant = tenants.create(1);
+        for (int i = 0; i < 20; i++) {
+            tenants.addUser(tenant, "DENTIST");
+        }
+
+        webTestClient.get().uri("/api/users")
+                .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+}
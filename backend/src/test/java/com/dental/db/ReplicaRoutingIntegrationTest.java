@@ -0,0 +1,174 @@
+package com.dental.db;
+
+import com.dental.config.ReplicaProperties;
+import com.dental.security.TenantContext;
+import com.dental.sharding.ShardRoutingConnectionFactory;
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.MountableFile;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Replica routing against a real streaming standby of the test primary, cloned with
+ * pg_basebackup by the same script as the docker-compose replica. The test that stops the
+ * standby runs last.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingIntegrationTest extends PostgresIntegrationTest {
+
+    private static final String REPLICA_ENTRYPOINT = "../docker/postgres/replica-entrypoint.sh";
+
+    private static final GenericContainer<?> STANDBY = new GenericContainer<>("postgres:15-alpine")
+            .withNetwork(POSTGRES.getNetwork())
+            .withEnv("PRIMARY_HOST", POSTGRES_ALIAS)
+            .withEnv("PRIMARY_USER", POSTGRES.getUsername())
+            .withEnv("PGPASSWORD", POSTGRES.getPassword())
+            .withCopyFileToContainer(MountableFile.forHostPath(REPLICA_ENTRYPOINT), "/replica-entrypoint.sh")
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres").withEntrypoint("sh", "/replica-entrypoint.sh"))
+            .withExposedPorts(PostgreSQLContainer.POSTGRESQL_PORT)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    static {
+        STANDBY.start();
+    }
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("dental.r2dbc.replica.enabled", () -> "true");
+        registry.add("dental.r2dbc.replica.url", () -> "r2dbc:postgresql://" + STANDBY.getHost() + ":"
+                + STANDBY.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + POSTGRES.getDatabaseName());
+        registry.add("dental.r2dbc.replica.health-check-interval", () -> "PT1S");
+    }
+
+    @Autowired
+    private ShardRoutingConnectionFactory connectionFactory;
+
+    @Autowired
+    private RecentWrites recentWrites;
+
+    @Autowired
+    private ReplicaProperties replicaProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ReplicaRoutingConnectionFactory routing;
+
+    @BeforeEach
+    void waitForHealthyReplica() {
+        routing = connectionFactory.getMain();
+        await().atMost(Duration.ofSeconds(30)).until(routing::isReplicaHealthy);
+    }
+
+    @Test
+    void replicaReadsAreServedByTheStandby() {
+        Tenant tenant = tenants.create(3);
+        await().atMost(Duration.ofSeconds(10)).until(() -> replicaPatients(tenant.id()) == 3);
+        double routedBefore = routedToReplica();
+
+        assertThat(onStandby(tenant.id())).isTrue();
+        webTestClient.get().uri("/api/patients")
+                .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(3);
+        assertThat(routedToReplica()).isGreaterThan(routedBefore);
+    }
+
+    @Test
+    void tenantThatJustWroteReadsFromThePrimary() {
+        Tenant writer = tenants.create(1);
+        Tenant other = tenants.create(1);
+
+        recentWrites.markWrite(writer.id());
+
+        assertThat(onStandby(writer.id())).isFalse();
+        assertThat(onStandby(other.id())).isTrue();
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheStandbyIsDown() {
+        Tenant tenant = tenants.create(1);
+        STANDBY.getDockerClient().pauseContainerCmd(STANDBY.getContainerId()).exec();
+        try {
+            await().atMost(Duration.ofSeconds(15)).until(() -> !routing.isReplicaHealthy());
+            assertThat(onStandby(tenant.id())).isFalse();
+        } finally {
+            STANDBY.getDockerClient().unpauseContainerCmd(STANDBY.getContainerId()).exec();
+        }
+        await().atMost(Duration.ofSeconds(30)).until(routing::isReplicaHealthy);
+        assertThat(onStandby(tenant.id())).isTrue();
+    }
+
+    @Test
+    @Order(Integer.MAX_VALUE)
+    void readsAreServedByThePrimaryOnceTheStandbyIsStopped() {
+        Tenant tenant = tenants.create(2);
+        STANDBY.stop();
+
+        for (int i = 0; i < 5; i++) {
+            webTestClient.get().uri("/api/patients")
+                    .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.length()").isEqualTo(2);
+        }
+        assertThat(onStandby(tenant.id())).isFalse();
+        assertThat(routing.isReplicaHealthy()).isFalse();
+    }
+
+    @Test
+    void serverNotInRecoveryIsNotUsedAsReplica() {
+        // The primary's pool posing as the replica: a misconfigured URL or a promoted standby
+        MeteredConnectionFactory primary = (MeteredConnectionFactory) routing.unwrap();
+        ReplicaRoutingConnectionFactory misconfigured = new ReplicaRoutingConnectionFactory(
+                primary, primary, recentWrites, replicaProperties, new SimpleMeterRegistry());
+
+        misconfigured.checkReplica().block();
+
+        assertThat(misconfigured.isReplicaHealthy()).isFalse();
+    }
+
+    private boolean onStandby(UUID tenantId) {
+        return ReplicaReads.route(databaseClient.sql("SELECT pg_is_in_recovery() AS standby")
+                        .map(row -> row.get("standby", Boolean.class))
+                        .one())
+                .contextWrite(TenantContext.withTenantId(tenantId))
+                .block();
+    }
+
+    private long replicaPatients(UUID tenantId) {
+        return ReplicaReads.route(databaseClient.sql("SELECT COUNT(*) AS n FROM patients WHERE tenant_id = :tenantId")
+                        .bind("tenantId", tenantId)
+                        .map(row -> row.get("n", Long.class))
+                        .one())
+                .contextWrite(TenantContext.withTenantId(tenantId))
+                .onErrorResume(e -> Mono.just(-1L))
+                .block();
+    }
+
+    private double routedToReplica() {
+        return meterRegistry.get("dental.db.route").tag("target", "replica").counter().count();
+    }
+}
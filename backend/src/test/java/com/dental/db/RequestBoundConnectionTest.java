@@ -0,0 +1,108 @@
+package com.dental.db;
+
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RequestBoundConnectionTest {
+
+    private final ConnectionRequestRegistry registry = new ConnectionRequestRegistry();
+
+    @Test
+    void closingReleasesTheBinding() {
+        Connection physical = mock(Connection.class);
+        when(physical.close()).thenReturn(Mono.empty());
+        RequestDbStats stats = new RequestDbStats(DbBudget.UNLIMITED);
+        registry.bind(physical, stats);
+        RequestBoundConnection pooled = new RequestBoundConnection(physical, registry, null);
+
+        assertThat(registry.lookup(physical)).isSameAs(stats);
+        Mono.from(pooled.close()).block();
+
+        assertThat(registry.lookup(physical)).isNull();
+        assertThat(registry.cancelRunning(stats)).isZero();
+        verify(physical, times(1)).close();
+    }
+
+    @Test
+    void releaseDoesNotDropTheNextHoldersBinding() {
+        Connection physical = mock(Connection.class);
+        when(physical.close()).thenReturn(Mono.empty());
+        RequestBoundConnection first = new RequestBoundConnection(physical, registry, null);
+        registry.bind(physical, new RequestDbStats(DbBudget.UNLIMITED));
+        Mono.from(first.close()).block();
+
+        RequestDbStats next = new RequestDbStats(DbBudget.UNLIMITED);
+        registry.bind(physical, next);
+        Mono.from(first.close()).block();
+
+        assertThat(registry.lookup(physical)).isSameAs(next);
+    }
+
+    @Test
+    void cancelsOnlyConnectionsRunningAStatement() {
+        PostgresqlConnection physical = mock(PostgresqlConnection.class);
+        when(physical.close()).thenReturn(Mono.empty());
+        when(physical.cancelRequest()).thenReturn(Mono.empty());
+        RequestDbStats stats = new RequestDbStats(DbBudget.UNLIMITED);
+        registry.bind(physical, stats);
+
+        assertThat(registry.cancelRunning(stats)).isZero();
+
+        registry.statementStarted(physical);
+        assertThat(registry.cancelRunning(stats)).isEqualTo(1);
+
+        registry.statementFinished(physical);
+        assertThat(registry.cancelRunning(stats)).isZero();
+        verify(physical, times(1)).cancelRequest();
+    }
+
+    @Test
+    void releaseWaitsForASentCancel() {
+        PostgresqlConnection physical = mock(PostgresqlConnection.class);
+        Sinks.Empty<Void> cancelSent = Sinks.empty();
+        when(physical.close()).thenReturn(Mono.empty());
+        when(physical.cancelRequest()).thenReturn(cancelSent.asMono());
+        RequestDbStats stats = new RequestDbStats(DbBudget.UNLIMITED);
+        registry.bind(physical, stats);
+        registry.statementStarted(physical);
+        RequestBoundConnection pooled = new RequestBoundConnection(physical, registry, null);
+
+        registry.cancelRunning(stats);
+        StepVerifier.create(pooled.close())
+                .then(() -> verify(physical, never()).close())
+                .then(cancelSent::tryEmitEmpty)
+                .verifyComplete();
+        verify(physical, times(1)).close();
+    }
+
+    @Test
+    void statementsOverAnEnforcedBudgetAreRefused() {
+        Connection physical = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(physical.createStatement("SELECT 1")).thenReturn(statement);
+        RequestDbStats stats = new RequestDbStats(new DbBudget(1, Long.MAX_VALUE, Duration.ofDays(1), true));
+        RequestBoundConnection pooled = new RequestBoundConnection(physical, registry, stats);
+        stats.recordStatement(0);
+
+        StepVerifier.create(Flux.from(pooled.createStatement("SELECT 1").execute()))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOf(DbBudgetExceededException.class)
+                        .extracting("limit").isEqualTo(RequestDbStats.LIMIT_STATEMENTS))
+                .verify();
+        verify(statement, never()).execute();
+    }
+}
@@ -0,0 +1,45 @@
+package com.dental.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantTagPolicyTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TenantTagPolicy policy = new TenantTagPolicy(1, registry);
+
+    @Test
+    void onlyTheBusiestTenantsGetTheirOwnTag() {
+        UUID busy = UUID.randomUUID();
+        UUID quiet = UUID.randomUUID();
+        policy.tagFor(busy);
+        policy.tagFor(busy);
+        policy.tagFor(quiet);
+
+        policy.rollWindow();
+
+        assertThat(policy.tagFor(busy)).isEqualTo(busy.toString());
+        assertThat(policy.tagFor(quiet)).isEqualTo(TenantTagPolicy.OTHER_TENANTS);
+        assertThat(policy.tagFor(null)).isEqualTo(TenantTagPolicy.NO_TENANT);
+    }
+
+    @Test
+    void removesMetersOfTenantsThatLeaveTheTopN() {
+        UUID previous = UUID.randomUUID();
+        UUID current = UUID.randomUUID();
+        policy.tagFor(previous);
+        policy.rollWindow();
+        registry.counter("http.server.requests", TenantTagPolicy.TAG, previous.toString()).increment();
+        registry.counter("http.server.requests", TenantTagPolicy.TAG, TenantTagPolicy.OTHER_TENANTS).increment();
+
+        policy.tagFor(current);
+        policy.rollWindow();
+
+        assertThat(registry.find("http.server.requests").tag(TenantTagPolicy.TAG, previous.toString()).counter()).isNull();
+        assertThat(registry.find("http.server.requests").tag(TenantTagPolicy.TAG, TenantTagPolicy.OTHER_TENANTS).counter()).isNotNull();
+    }
+}
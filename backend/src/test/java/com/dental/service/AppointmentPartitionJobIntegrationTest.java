@@ -0,0 +1,102 @@
+package com.dental.service;
+
+import com.dental.config.AppointmentPartitionProperties;
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Months past the retention leave appointments through DETACH PARTITION CONCURRENTLY and
+ * are archived in a separate transaction, including a month an earlier run detached but
+ * did not get to archive.
+ */
+@TestPropertySource(properties = {
+        "dental.appointments.partitions.enabled=true",
+        "dental.appointments.partitions.initial-delay=PT1H"
+})
+class AppointmentPartitionJobIntegrationTest extends PostgresIntegrationTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private AppointmentPartitionJob job;
+
+    @Autowired
+    private AppointmentPartitionProperties properties;
+
+    @Test
+    void archivesMonthsPastTheRetention() {
+        Tenant tenant = tenants.create(2);
+        LocalDate month = properties.firstMonth().minusMonths(1);
+        String partition = partitionOf(month);
+        createPartition(month);
+        tenants.book(tenant, month.plusDays(2), 3);
+
+        job.maintain().block();
+
+        assertThat(exists(partition)).isFalse();
+        assertThat(count("appointments_archive", tenant)).isEqualTo(3);
+        assertThat(count("appointments", tenant)).isZero();
+    }
+
+    @Test
+    void archivesAMonthLeftDetachedByAnEarlierRun() {
+        Tenant tenant = tenants.create(2);
+        LocalDate month = properties.firstMonth().minusMonths(2);
+        String partition = partitionOf(month);
+        createPartition(month);
+        tenants.book(tenant, month.plusDays(4), 2);
+        execute("ALTER TABLE appointments DETACH PARTITION " + partition);
+
+        job.maintain().block();
+
+        assertThat(exists(partition)).isFalse();
+        assertThat(count("appointments_archive", tenant)).isEqualTo(2);
+    }
+
+    @Test
+    void keepsMonthsWithinTheRetention() {
+        Tenant tenant = tenants.create(2);
+        tenants.book(tenant, properties.firstMonth().plusDays(1), 2);
+
+        job.maintain().block();
+
+        assertThat(exists(partitionOf(properties.firstMonth()))).isTrue();
+        assertThat(count("appointments", tenant)).isEqualTo(2);
+    }
+
+    private static String partitionOf(LocalDate month) {
+        return "appointments_" + month.format(PARTITION_SUFFIX);
+    }
+
+    private void createPartition(LocalDate month) {
+        databaseClient.sql("SELECT create_appointments_partitions(:from, :to)")
+                .bind("from", month)
+                .bind("to", month.plusMonths(1))
+                .then()
+                .block();
+    }
+
+    private boolean exists(String table) {
+        return databaseClient.sql("SELECT to_regclass(:table) IS NOT NULL AS present")
+                .bind("table", table)
+                .map(row -> row.get("present", Boolean.class))
+                .one()
+                .block();
+    }
+
+    private long count(String table, Tenant tenant) {
+        return databaseClient.sql("SELECT COUNT(*) AS n FROM " + table + " WHERE tenant_id = :tenantId")
+                .bind("tenantId", tenant.id())
+                .map(row -> row.get("n", Long.class))
+                .one()
+                .block();
+    }
+}
@@ -0,0 +1,86 @@
+package com.dental.service;
+
+import com.dental.dto.DashboardTimeSeriesDTO;
+import com.dental.dto.TimeSeriesPointDTO;
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * daily_tenant_rollup must not lose a write that marks an already dirty day while the job
+ * claims it, and weekly series must sum whole weeks.
+ */
+class DailyRollupIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DailyRollupJob job;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Test
+    void keepsWriteMarkingAnAlreadyDirtyDay() throws Exception {
+        Tenant tenant = tenants.create(2);
+        LocalDate day = LocalDate.now().plusDays(3);
+        tenants.book(tenant, day, 2);
+        execute("INSERT INTO daily_tenant_rollup_dirty (tenant_id, stat_date) VALUES ('" + tenant.id() + "', '" + day + "')");
+
+        Connection writer = Mono.from(connectionFactory.create()).block();
+        try {
+            Mono.from(writer.beginTransaction()).block();
+            execute(writer, "INSERT INTO appointments (tenant_id, patient_id, dentist_id, start_time, duration_minutes, status) "
+                    + "SELECT tenant_id, id, '" + tenant.dentistId() + "', TIMESTAMP '" + day + " 18:00', 30, 'SCHEDULED' "
+                    + "FROM patients WHERE tenant_id = '" + tenant.id() + "' LIMIT 1");
+            execute(writer, "INSERT INTO daily_tenant_rollup_dirty (tenant_id, stat_date, marked_at) "
+                    + "VALUES ('" + tenant.id() + "', '" + day + "', clock_timestamp()) "
+                    + "ON CONFLICT (tenant_id, stat_date) DO UPDATE SET marked_at = EXCLUDED.marked_at");
+
+            CompletableFuture<Void> refresh = job.refreshDirtyDays().toFuture();
+            awaitBlockedBy(writer);
+            assertThat(refresh).isNotDone();
+
+            Mono.from(writer.commitTransaction()).block();
+            refresh.get();
+        } finally {
+            Mono.from(writer.close()).block(Duration.ofSeconds(5));
+        }
+        job.refreshDirtyDays().block();
+
+        assertThat(databaseClient.sql("SELECT appointments FROM daily_tenant_rollup WHERE tenant_id = :tenantId AND stat_date = :day")
+                .bind("tenantId", tenant.id())
+                .bind("day", day)
+                .map(row -> row.get("appointments", Long.class))
+                .one()
+                .block()).isEqualTo(3);
+    }
+
+    @Test
+    void weeklySeriesSumsWholeWeeks() {
+        Tenant tenant = tenants.create(1);
+        LocalDate monday = LocalDate.now().minusWeeks(3).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        execute("INSERT INTO daily_tenant_rollup (tenant_id, stat_date, new_patients) VALUES "
+                + "('" + tenant.id() + "', '" + monday + "', 2), "
+                + "('" + tenant.id() + "', '" + monday.plusDays(4) + "', 3)");
+
+        DashboardTimeSeriesDTO series = dashboardService
+                .getTimeSeries(tenant.id(), DashboardService.METRIC_NEW_PATIENTS, monday.plusDays(3), monday.plusDays(10))
+                .block();
+
+        assertThat(series.getPoints()).extracting(TimeSeriesPointDTO::getValue).containsExactly(5L, 0L);
+    }
+}
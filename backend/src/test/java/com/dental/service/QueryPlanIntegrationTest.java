@@ -0,0 +1,100 @@
+package com.dental.service;
+
+import com.dental.repository.AppointmentRepository;
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.postgresql.codec.Json;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAIN checks for the dashboard and calendar hot paths. Sequential scans are disabled
+ * for the statement, so a plan that still contains one means no index can serve the
+ * predicate (for example a function applied to an indexed column).
+ */
+class QueryPlanIntegrationTest extends PostgresIntegrationTest {
+
+    private static final DateTimeFormatter PARTITION = DateTimeFormatter.ofPattern("'appointments_'yyyy_MM");
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void dashboardStatsAreTwoPrimaryKeyLookups() throws Exception {
+        Tenant tenant = tenants.create(20);
+
+        List<JsonNode> nodes = explain(DashboardService.STATS_SQL, spec -> spec
+                .bind("tenantId", tenant.id())
+                .bind("today", LocalDate.now()));
+
+        assertThat(nodes).extracting(node -> node.path("Node Type").asText()).doesNotContain("Seq Scan");
+        assertThat(nodes).extracting(node -> node.path("Index Name").asText())
+                .contains("tenant_stats_pkey", "tenant_daily_stats_pkey");
+    }
+
+    @Test
+    void calendarRangeScansOneMonthThroughTheTenantDateIndex() throws Exception {
+        Tenant tenant = tenants.create(10);
+        LocalDate day = LocalDate.now().plusDays(1);
+        tenants.book(tenant, day, 50);
+        tenants.book(tenant, day.plusMonths(2), 50);
+
+        List<JsonNode> nodes = explain(rangeQuery(), spec -> spec
+                .bind("tenantId", tenant.id())
+                .bind("startDate", day.atStartOfDay())
+                .bind("endDate", day.atTime(LocalTime.MAX)));
+
+        assertThat(nodes).extracting(node -> node.path("Node Type").asText()).doesNotContain("Seq Scan");
+        List<JsonNode> appointmentScans = nodes.stream()
+                .filter(node -> node.path("Relation Name").asText().startsWith("appointments"))
+                .toList();
+        assertThat(appointmentScans).extracting(node -> node.path("Relation Name").asText())
+                .containsOnly(day.format(PARTITION));
+        assertThat(appointmentScans).extracting(node -> node.path("Index Name").asText())
+                .allMatch(name -> name.endsWith("tenant_id_start_time_idx"));
+    }
+
+    private static String rangeQuery() throws NoSuchMethodException {
+        return AppointmentRepository.class
+                .getMethod("findWithNamesByTenantIdAndDateRange", UUID.class, LocalDateTime.class, LocalDateTime.class)
+                .getAnnotation(Query.class)
+                .value();
+    }
+
+    private List<JsonNode> explain(String sql, UnaryOperator<GenericExecuteSpec> binder) throws Exception {
+        String plan = databaseClient.sql("SET LOCAL enable_seqscan = off").then()
+                .then(binder.apply(databaseClient.sql("EXPLAIN (FORMAT JSON) " + sql))
+                        .map(row -> row.get(0, Json.class).asString())
+                        .one())
+                .as(transactionalOperator::transactional)
+                .block();
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(objectMapper.readTree(plan).get(0).get("Plan"), nodes);
+        return nodes;
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, nodes);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dental.service;
+
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The reconciliation recount must fix drift without overwriting writes that commit while it runs.
+ */
+class TenantStatsReconciliationIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TenantStatsReconciliationJob job;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Test
+    void correctsDrift() {
+        Tenant tenant = tenants.create(4);
+        execute("UPDATE tenant_stats SET total_patients = 999 WHERE tenant_id = '" + tenant.id() + "'");
+
+        job.reconcile().block();
+
+        assertThat(totalPatients(tenant)).isEqualTo(4);
+    }
+
+    @Test
+    void keepsWriteCommittedDuringRecount() throws Exception {
+        Tenant tenant = tenants.create(4);
+        Connection writer = Mono.from(connectionFactory.create()).block();
+        try {
+            // A patient insert and its counter adjustment, still uncommitted
+            Mono.from(writer.beginTransaction()).block();
+            execute(writer, "INSERT INTO patients (tenant_id, first_name, last_name) VALUES ('" + tenant.id() + "', 'New', 'Patient')");
+            execute(writer, "UPDATE tenant_stats SET total_patients = total_patients + 1 WHERE tenant_id = '" + tenant.id() + "'");
+
+            CompletableFuture<Void> reconcile = job.reconcile().toFuture();
+            awaitBlockedBy(writer);
+            assertThat(reconcile).isNotDone();
+
+            Mono.from(writer.commitTransaction()).block();
+            reconcile.get();
+        } finally {
+            Mono.from(writer.close()).block(Duration.ofSeconds(5));
+        }
+
+        assertThat(totalPatients(tenant)).isEqualTo(5);
+    }
+
+    private long totalPatients(Tenant tenant) {
+        return databaseClient.sql("SELECT total_patients FROM tenant_stats WHERE tenant_id = :tenantId")
+                .bind("tenantId", tenant.id())
+                .map(row -> row.get("total_patients", Long.class))
+                .one()
+                .block();
+    }
+}
@@ -0,0 +1,115 @@
+package com.dental.sharding;
+
+import com.dental.config.ShardingProperties;
+import com.dental.support.PostgresIntegrationTest;
+import com.dental.support.TestTenants.Tenant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Moves tenants between the test database (main) and a second Postgres (shard2) with the
+ * application running: rows end up only on the target, the tenants row stays on main, and
+ * while the tenant is frozen its reads are served and its writes get 503.
+ */
+class TenantMoverIntegrationTest extends PostgresIntegrationTest {
+
+    private static final String SHARD2 = "shard2";
+
+    private static final PostgreSQLContainer<?> SHARD2_POSTGRES = postgres();
+
+    static {
+        SHARD2_POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void shardingProperties(DynamicPropertyRegistry registry) {
+        registry.add("dental.sharding.enabled", () -> "true");
+        registry.add("dental.sharding.shards.shard2.url", () -> r2dbcUrl(SHARD2_POSTGRES));
+        registry.add("dental.sharding.move-drain-time", () -> "PT2S");
+    }
+
+    @Autowired
+    private TenantMover tenantMover;
+
+    @Autowired
+    private ShardMap shardMap;
+
+    @Test
+    void movesToAShardAndBackKeepingTheTenantRowOnMain() {
+        Tenant tenant = tenants.create(5);
+        tenants.book(tenant, LocalDate.now(), 4);
+
+        TenantMover.MoveReport toShard2 = tenantMover.move(tenant.id(), SHARD2).block();
+
+        assertThat(toShard2.rows()).containsEntry("patients", 5L).containsEntry("appointments", 4L);
+        assertThat(patientsViaApi(tenant)).isEqualTo(5);
+        assertThat(rows(ShardingProperties.MAIN, "patients", tenant.id())).isZero();
+        assertThat(rows(SHARD2, "patients", tenant.id())).isEqualTo(5);
+        assertThat(rows(ShardingProperties.MAIN, "tenants", tenant.id())).isEqualTo(1);
+
+        TenantMover.MoveReport back = tenantMover.move(tenant.id(), ShardingProperties.MAIN).block();
+
+        assertThat(back.rows()).doesNotContainKey("tenants").containsEntry("patients", 5L);
+        assertThat(patientsViaApi(tenant)).isEqualTo(5);
+        assertThat(rows(SHARD2, "patients", tenant.id())).isZero();
+        assertThat(rows(SHARD2, "tenants", tenant.id())).isZero();
+        assertThat(rows(ShardingProperties.MAIN, "patients", tenant.id())).isEqualTo(5);
+        assertThat(rows(ShardingProperties.MAIN, "appointments", tenant.id())).isEqualTo(4);
+        assertThat(rows(ShardingProperties.MAIN, "tenants", tenant.id())).isEqualTo(1);
+        assertThat(shardMap.shardOf(tenant.id())).isEqualTo(ShardingProperties.MAIN);
+    }
+
+    @Test
+    void servesReadsAndRejectsWritesWhileMoving() {
+        Tenant tenant = tenants.create(3);
+        Mono<TenantMover.MoveReport> move = tenantMover.move(tenant.id(), SHARD2).cache();
+        move.subscribe();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> shardMap.isMoving(tenant.id()));
+        assertThat(patientsViaApi(tenant)).isEqualTo(3);
+        webTestClient.put().uri("/api/patients/{id}", UUID.randomUUID())
+                .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+
+        move.block(Duration.ofSeconds(30));
+        assertThat(shardMap.isMoving(tenant.id())).isFalse();
+        assertThat(patientsViaApi(tenant)).isEqualTo(3);
+    }
+
+    private int patientsViaApi(Tenant tenant) {
+        return webTestClient.get().uri("/api/patients")
+                .header(HttpHeaders.AUTHORIZATION, tenant.bearer())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Object.class)
+                .returnResult()
+                .getResponseBody()
+                .size();
+    }
+
+    private long rows(String shard, String table, UUID tenantId) {
+        String column = "tenants".equals(table) ? "id" : "tenant_id";
+        return ShardRouting.on(shard, databaseClient.sql("SELECT COUNT(*) AS n FROM " + table + " WHERE " + column + " = :tenantId")
+                        .bind("tenantId", tenantId)
+                        .map(row -> row.get("n", Long.class))
+                        .one())
+                .block();
+    }
+}
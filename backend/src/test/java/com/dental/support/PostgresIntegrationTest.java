@@ -0,0 +1,109 @@
+package com.dental.support;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.MountableFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Base class for tests that boot the whole application against a real Postgres created
+ * from docker/postgres/init.sql. The container is started once per JVM and shared by every
+ * test class; tests isolate themselves by creating their own tenant (see {@link TestTenants}).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import({StatementCountRecorder.class, TestTenants.class})
+public abstract class PostgresIntegrationTest {
+
+    public static final String INIT_SQL = "../docker/postgres/init.sql";
+    public static final String REPLICATION_SH = "../docker/postgres/replication.sh";
+
+    /** Network alias of {@link #POSTGRES}, for containers that connect to it (e.g. a standby). */
+    public static final String POSTGRES_ALIAS = "postgres";
+
+    protected static final PostgreSQLContainer<?> POSTGRES = postgres()
+            .withNetwork(Network.SHARED)
+            .withNetworkAliases(POSTGRES_ALIAS);
+
+    static {
+        POSTGRES.start();
+    }
+
+    @Autowired
+    protected WebTestClient webTestClient;
+
+    @Autowired
+    protected DatabaseClient databaseClient;
+
+    @Autowired
+    protected StatementCountRecorder statementCounts;
+
+    @Autowired
+    protected TestTenants tenants;
+
+    /**
+     * A Postgres 15 container (the docker-compose image) initialized with the repo schema,
+     * accepting replication connections like the docker-compose primary.
+     */
+    public static PostgreSQLContainer<?> postgres() {
+        return new PostgreSQLContainer<>("postgres:15-alpine")
+                .withDatabaseName("dental_db")
+                .withUsername("dental_user")
+                .withPassword("dental_pass")
+                .withCopyFileToContainer(MountableFile.forHostPath(INIT_SQL), "/docker-entrypoint-initdb.d/init.sql")
+                .withCopyFileToContainer(MountableFile.forHostPath(REPLICATION_SH), "/docker-entrypoint-initdb.d/replication.sh");
+    }
+
+    public static String r2dbcUrl(PostgreSQLContainer<?> container) {
+        return "r2dbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)
+                + "/" + container.getDatabaseName();
+    }
+
+    /** Runs {@code sql} through the application's {@link DatabaseClient}. */
+    protected void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    /** Runs {@code sql} on {@code connection}, e.g. inside a transaction the test keeps open. */
+    protected static void execute(Connection connection, String sql) {
+        Flux.from(connection.createStatement(sql).execute()).flatMap(Result::getRowsUpdated).blockLast();
+    }
+
+    /**
+     * Waits until some other backend is waiting on a lock held by {@code holder}'s open
+     * transaction, i.e. until pg_locks shows the code under test blocked behind it.
+     */
+    protected void awaitBlockedBy(Connection holder) {
+        int pid = Mono.from(holder.createStatement("SELECT pg_backend_pid() AS pid").execute())
+                .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get("pid", Integer.class))))
+                .block();
+        await().atMost(Duration.ofSeconds(10)).until(() -> databaseClient
+                .sql("SELECT COUNT(*) AS n FROM pg_stat_activity WHERE :pid = ANY(pg_blocking_pids(pid))")
+                .bind("pid", pid)
+                .map(row -> row.get("n", Long.class))
+                .one()
+                .block() > 0);
+    }
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> r2dbcUrl(POSTGRES));
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+    }
+}
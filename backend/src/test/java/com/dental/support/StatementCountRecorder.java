@@ -0,0 +1,57 @@
+package com.dental.support;
+
+import com.dental.db.QueryStatsWebFilter;
+import com.dental.db.RequestDbStats;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Records how many SQL statements each tagged request ran, as counted by
+ * {@link com.dental.db.QueryMetricsListener} into the request's {@link RequestDbStats}.
+ * Runs right inside {@link QueryStatsWebFilter} and reads the stats once the exchange has
+ * finished, so streamed bodies are counted in full (the Server-Timing header is not).
+ */
+@TestComponent
+@Order(Ordered.HIGHEST_PRECEDENCE + 11)
+public class StatementCountRecorder implements WebFilter {
+
+    public static final String REQUEST_TAG = "X-Test-Request";
+
+    private final Map<String, Integer> statements = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String tag = exchange.getRequest().getHeaders().getFirst(REQUEST_TAG);
+        if (tag == null) {
+            return chain.filter(exchange);
+        }
+        return Mono.deferContextual(ctx -> {
+            RequestDbStats stats = RequestDbStats.from(ctx);
+            return chain.filter(exchange)
+                    .doFinally(signal -> statements.put(tag, stats != null ? stats.getStatements() : -1));
+        });
+    }
+
+    public String newTag() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Statements run by the request sent with {@code tag}, waiting for its exchange to finish.
+     */
+    public int statementsOf(String tag) {
+        return await().atMost(Duration.ofSeconds(5)).until(() -> statements.get(tag), count -> count != null);
+    }
+}
@@ -0,0 +1,97 @@
+package com.dental.support;
+
+import com.dental.security.JwtUtil;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Creates a fresh tenant per test (admin, dentist, patients and appointments) straight in
+ * the database, and signs tokens for it with the application's {@link JwtUtil}.
+ */
+@TestComponent
+public class TestTenants {
+
+    private final DatabaseClient databaseClient;
+    private final JwtUtil jwtUtil;
+
+    public TestTenants(DatabaseClient databaseClient, JwtUtil jwtUtil) {
+        this.databaseClient = databaseClient;
+        this.jwtUtil = jwtUtil;
+    }
+
+    public record Tenant(UUID id, UUID adminId, UUID dentistId, String adminToken) {
+
+        public String bearer() {
+            return "Bearer " + adminToken;
+        }
+    }
+
+    /**
+     * A tenant with an ADMIN user, a DENTIST user linked to a staff row and {@code patients} patients.
+     */
+    public Tenant create(int patients) {
+        UUID tenantId = UUID.randomUUID();
+        UUID adminId = UUID.randomUUID();
+        UUID dentistId = UUID.randomUUID();
+        String suffix = tenantId.toString().substring(0, 8);
+        execute("INSERT INTO tenants (id, name, active, plan) VALUES ('%s', 'Test %s', true, 'BASIC')"
+                .formatted(tenantId, suffix));
+        execute(("INSERT INTO users (id, tenant_id, email, password, first_name, last_name, role, active) VALUES "
+                + "('%s', '%s', 'admin-%s@test', '!', 'Admin', 'Test', 'ADMIN', true), "
+                + "('%s', '%s', 'dentist-%s@test', '!', 'Dentist', 'Test', 'DENTIST', true)")
+                .formatted(adminId, tenantId, suffix, dentistId, tenantId, suffix));
+        execute(("INSERT INTO staff (tenant_id, user_id, first_name, last_name, specialty, license_number, active) "
+                + "VALUES ('%s', '%s', 'Dentist', 'Test', 'Odontología General', 'LIC-%s', true)")
+                .formatted(tenantId, dentistId, suffix));
+        execute(("INSERT INTO patients (tenant_id, first_name, last_name) "
+                + "SELECT '%s', 'Patient', 'N' || n FROM generate_series(1, %d) n")
+                .formatted(tenantId, patients));
+        execute("INSERT INTO tenant_stats (tenant_id, total_patients, active_staff) VALUES ('%s', %d, 1)"
+                .formatted(tenantId, patients));
+        String token = jwtUtil.generateToken(adminId, tenantId, "admin-" + suffix + "@test", "ADMIN");
+        return new Tenant(tenantId, adminId, dentistId, token);
+    }
+
+    /**
+     * Books {@code count} appointments on {@code day}, cycling through the tenant's patients.
+     */
+    public void book(Tenant tenant, LocalDate day, int count) {
+        execute(("INSERT INTO appointments (tenant_id, patient_id, dentist_id, start_time, duration_minutes, status) "
+                + "SELECT '%1$s', p.id, '%2$s', DATE '%3$s' + INTERVAL '8 hours' + n * INTERVAL '5 minutes', 30, 'SCHEDULED' "
+                + "FROM generate_series(0, %4$d - 1) n "
+                + "JOIN LATERAL (SELECT id FROM patients WHERE tenant_id = '%1$s' ORDER BY id OFFSET n %% "
+                + "(SELECT COUNT(*) FROM patients WHERE tenant_id = '%1$s') LIMIT 1) p ON true")
+                .formatted(tenant.id(), tenant.dentistId(), day, count));
+    }
+
+    /**
+     * Adds a user linked to its own staff row, so the user list has a staff name to resolve.
+     */
+    public UUID addUser(Tenant tenant, String role) {
+        UUID userId = UUID.randomUUID();
+        UUID staffId = UUID.randomUUID();
+        String suffix = userId.toString().substring(0, 8);
+        execute(("INSERT INTO staff (id, tenant_id, first_name, last_name, specialty, license_number, active) "
+                + "VALUES ('%s', '%s', 'Staff', '%s', 'Odontología General', 'LIC-%s', true)")
+                .formatted(staffId, tenant.id(), suffix, suffix));
+        execute(("INSERT INTO users (id, tenant_id, staff_id, email, password, first_name, last_name, role, active) "
+                + "VALUES ('%s', '%s', '%s', 'user-%s@test', '!', 'User', '%s', '%s', true)")
+                .formatted(userId, tenant.id(), staffId, suffix, suffix, role));
+        return userId;
+    }
+
+    public UUID anyAppointment(Tenant tenant) {
+        return databaseClient.sql("SELECT id FROM appointments WHERE tenant_id = :tenantId LIMIT 1")
+                .bind("tenantId", tenant.id())
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
@@ -0,0 +1,66 @@
+package com.dental.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchingJackson2JsonEncoderTest {
+
+    private final BatchingJackson2JsonEncoder encoder =
+            new BatchingJackson2JsonEncoder(new ObjectMapper(), 2, Duration.ofSeconds(5));
+
+    @Test
+    void ndjsonIsOneLinePerElementInBatches() {
+        StepVerifier.create(encode(Flux.range(1, 5), MediaType.APPLICATION_NDJSON))
+                .expectNext("1\n2\n", "3\n4\n", "5\n")
+                .verifyComplete();
+    }
+
+    @Test
+    void jsonStreamIsOneArraySentInBatches() {
+        StepVerifier.create(encode(Flux.range(1, 5), BatchingJackson2JsonEncoder.APPLICATION_JSON_STREAM))
+                .expectNext("[1,2", ",3,4", ",5", "]")
+                .verifyComplete();
+    }
+
+    @Test
+    void emptyJsonStreamIsAnEmptyArray() {
+        StepVerifier.create(encode(Flux.empty(), BatchingJackson2JsonEncoder.APPLICATION_JSON_STREAM))
+                .expectNext("[", "]")
+                .verifyComplete();
+    }
+
+    @Test
+    void plainJsonIsNotTakenForAStream() {
+        String body = encode(Flux.range(1, 5), MediaType.APPLICATION_JSON)
+                .reduce(String::concat)
+                .block();
+
+        assertThat(body).isEqualTo("[1,2,3,4,5]");
+        assertThat(encoder.getStreamingMediaTypes()).contains(BatchingJackson2JsonEncoder.APPLICATION_JSON_STREAM);
+    }
+
+    private Flux<String> encode(Flux<Integer> values, MediaType mediaType) {
+        return encoder.encode(values, DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(Integer.class), mediaType, Map.of())
+                .map(this::text);
+    }
+
+    private String text(DataBuffer buffer) {
+        String text = buffer.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(buffer);
+        return text;
+    }
+}
@@ -16,6 +16,8 @@ CREATE TABLE IF NOT EXISTS tenants (
     contact_email VARCHAR(255),
     phone VARCHAR(50),
     active BOOLEAN DEFAULT true,
+    -- Plan contratado: BASIC, PROFESSIONAL o ENTERPRISE (límites de concurrencia, ver AdmissionProperties)
+    plan VARCHAR(20) NOT NULL DEFAULT 'BASIC',
     created_at TIMESTAMP DEFAULT NOW()
 );
 
@@ -52,9 +54,13 @@ CREATE TABLE IF NOT EXISTS patients (
 
 -- ========================================
 -- TABLA: APPOINTMENTS (Citas)
+-- Particionada por mes sobre start_time (appointments_YYYY_MM); las
+-- particiones las crea y archiva AppointmentPartitionJob, ver
+-- "PARTICIONES MENSUALES DE APPOINTMENTS". La clave primaria debe
+-- incluir start_time; la unicidad de id la garantiza uuid_generate_v4()
 -- ========================================
 CREATE TABLE IF NOT EXISTS appointments (
-    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    id UUID NOT NULL DEFAULT uuid_generate_v4(),
     tenant_id UUID NOT NULL REFERENCES tenants(id),
     patient_id UUID NOT NULL REFERENCES patients(id),
     dentist_id UUID NOT NULL REFERENCES users(id),
@@ -63,8 +69,13 @@ CREATE TABLE IF NOT EXISTS appointments (
     status VARCHAR(50) NOT NULL,
     notes TEXT,
     created_at TIMESTAMP DEFAULT NOW(),
-    updated_at TIMESTAMP DEFAULT NOW()
-);
+    updated_at TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY (id, start_time)
+) PARTITION BY RANGE (start_time);
+
+-- Sin partición por defecto: con ella Postgres no permite DETACH PARTITION
+-- CONCURRENTLY. AppointmentService solo acepta citas en meses que ya
+-- tienen partición (ver AppointmentPartitionProperties)
 
 -- ========================================
 -- TABLA: STAFF (Personal médico)
@@ -120,13 +131,175 @@ WHERE deleted_at IS NULL;
 -- ========================================
 ALTER TABLE users ADD COLUMN IF NOT EXISTS staff_id UUID REFERENCES staff(id);
 
+-- ========================================
+-- TABLA: TENANT_STATS (Contadores por tenant)
+-- Mantenidos en la misma transacción que las escrituras
+-- y reconciliados periódicamente por TenantStatsReconciliationJob
+-- ========================================
+CREATE TABLE IF NOT EXISTS tenant_stats (
+    tenant_id UUID PRIMARY KEY REFERENCES tenants(id),
+    total_patients BIGINT NOT NULL DEFAULT 0,
+    active_staff BIGINT NOT NULL DEFAULT 0,
+    appointments_pending BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT NOW()
+);
+
+-- Citas por día y tenant
+CREATE TABLE IF NOT EXISTS tenant_daily_stats (
+    tenant_id UUID NOT NULL REFERENCES tenants(id),
+    stat_date DATE NOT NULL,
+    appointments BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (tenant_id, stat_date)
+);
+
+-- ========================================
+-- TABLA: DAILY_TENANT_ROLLUP (Series de tiempo del dashboard)
+-- Rellenada incrementalmente por DailyRollupJob a partir de
+-- los días marcados en DAILY_TENANT_ROLLUP_DIRTY
+-- ========================================
+CREATE TABLE IF NOT EXISTS daily_tenant_rollup (
+    tenant_id UUID NOT NULL REFERENCES tenants(id),
+    stat_date DATE NOT NULL,
+    appointments BIGINT NOT NULL DEFAULT 0,
+    cancelled_appointments BIGINT NOT NULL DEFAULT 0,
+    new_patients BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY (tenant_id, stat_date)
+);
+
+-- Cada escritura actualiza marked_at aunque el día ya esté marcado: así
+-- la fila queda bloqueada hasta su commit y DailyRollupJob no la reclama
+-- antes de poder ver esa escritura
+CREATE TABLE IF NOT EXISTS daily_tenant_rollup_dirty (
+    tenant_id UUID NOT NULL,
+    stat_date DATE NOT NULL,
+    marked_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (tenant_id, stat_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_patients_tenant_created ON patients(tenant_id, created_at);
+
+-- ========================================
+-- TABLA: TENANT_ENTITY_VERSIONS (Versiones para ETag / caché)
+-- Versión monótona por tenant y entidad; la incrementa cada escritura
+-- de servicio en su misma transacción (ver TenantDataVersions)
+-- ========================================
+CREATE TABLE IF NOT EXISTS tenant_entity_versions (
+    tenant_id UUID NOT NULL REFERENCES tenants(id),
+    entity VARCHAR(50) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY (tenant_id, entity)
+);
+
+-- ========================================
+-- TABLA: TENANT_SHARDS (Directorio de shards)
+-- Solo se usa en el shard "main": en qué base vive cada tenant
+-- (sin fila = main). MOVING congela sus escrituras mientras se
+-- mueve (ver TenantMover)
+-- ========================================
+CREATE TABLE IF NOT EXISTS tenant_shards (
+    tenant_id UUID PRIMARY KEY,
+    shard VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    updated_at TIMESTAMP DEFAULT NOW()
+);
+
+-- ========================================
+-- PARTICIONES MENSUALES DE APPOINTMENTS
+-- Cada mes es una partición con sus propios índices, así que una
+-- consulta acotada por start_time solo toca los meses que pide y el
+-- índice de un mes viejo no crece más. AppointmentPartitionJob crea los
+-- meses futuros y saca de la tabla los que exceden la retención
+-- ========================================
+
+-- Tabla fría: citas de meses archivados (ya no visibles en la API; el
+-- dashboard conserva sus totales en tenant_daily_stats y daily_tenant_rollup)
+CREATE TABLE IF NOT EXISTS appointments_archive (
+    LIKE appointments INCLUDING DEFAULTS,
+    archived_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_tenant_date ON appointments_archive(tenant_id, start_time);
+
+-- Crea las particiones que falten para los meses de [p_from, p_to).
+-- Devuelve cuántas particiones creó
+CREATE OR REPLACE FUNCTION create_appointments_partitions(p_from DATE, p_to DATE) RETURNS INTEGER AS $$
+DECLARE
+    v_month DATE := date_trunc('month', p_from)::date;
+    v_next DATE;
+    v_name TEXT;
+    v_created INTEGER := 0;
+BEGIN
+    -- Varios nodos ejecutan el job: uno a la vez
+    PERFORM pg_advisory_xact_lock(hashtext('appointments_partitions'));
+    WHILE v_month < p_to LOOP
+        v_next := (v_month + INTERVAL '1 month')::date;
+        v_name := 'appointments_' || to_char(v_month, 'YYYY_MM');
+        IF to_regclass(v_name) IS NULL THEN
+            -- Crear aparte y luego ATTACH bloquea appointments menos que CREATE ... PARTITION OF
+            EXECUTE format('CREATE TABLE %I (LIKE appointments INCLUDING DEFAULTS)', v_name);
+            EXECUTE format('ALTER TABLE appointments ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           v_name, v_month, v_next);
+            v_created := v_created + 1;
+        END IF;
+        v_month := v_next;
+    END LOOP;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Meses anteriores a p_before que AppointmentPartitionJob debe sacar de
+-- appointments, del más viejo al más nuevo: los que siguen enganchados
+-- (detach_pending si un DETACH CONCURRENTLY quedó a medias y hay que
+-- terminarlo con FINALIZE) y, con p_archive, los ya desenganchados que no
+-- llegaron a archivarse. El job hace el DETACH ... CONCURRENTLY fuera de
+-- toda transacción, así que no puede ir dentro de una función
+CREATE OR REPLACE FUNCTION appointments_partitions_to_archive(p_before DATE, p_archive BOOLEAN)
+RETURNS TABLE (partition_name TEXT, attached BOOLEAN, detach_pending BOOLEAN) AS $$
+    SELECT c.relname::text, i.inhrelid IS NOT NULL, COALESCE(i.inhdetachpending, false)
+    FROM pg_class c
+    LEFT JOIN pg_inherits i ON i.inhrelid = c.oid AND i.inhparent = 'appointments'::regclass
+    WHERE c.relkind = 'r'
+      AND pg_table_is_visible(c.oid)
+      AND c.relname ~ '^appointments_[0-9]{4}_[0-9]{2}$'
+      AND to_date(substring(c.relname from 14), 'YYYY_MM') < date_trunc('month', p_before)::date
+      AND (i.inhrelid IS NOT NULL OR p_archive)
+    ORDER BY c.relname
+$$ LANGUAGE sql STABLE;
+
+-- Pasa a appointments_archive las filas de un mes ya desenganchado y borra
+-- su tabla, en una sola transacción. Devuelve cuántas filas movió (0 si la
+-- tabla ya no existe)
+CREATE OR REPLACE FUNCTION archive_detached_appointments_partition(p_partition TEXT) RETURNS BIGINT AS $$
+DECLARE
+    v_moved BIGINT := 0;
+BEGIN
+    IF to_regclass(p_partition) IS NULL THEN
+        RETURN 0;
+    END IF;
+    IF EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(p_partition)) THEN
+        RAISE EXCEPTION 'La partición % sigue enganchada a appointments', p_partition;
+    END IF;
+    EXECUTE format('INSERT INTO appointments_archive SELECT * FROM %I ON CONFLICT (id) DO NOTHING', p_partition);
+    GET DIAGNOSTICS v_moved = ROW_COUNT;
+    EXECUTE format('DROP TABLE %I', p_partition);
+    RETURN v_moved;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Meses iniciales: la retención y el horizonte por defecto del job
+-- (24 meses atrás, 12 adelante)
+SELECT create_appointments_partitions((date_trunc('month', NOW()) - INTERVAL '24 months')::date,
+                                      (date_trunc('month', NOW()) + INTERVAL '13 months')::date);
+
 -- ========================================
 -- DATOS DE PRUEBA - TENANTS
 -- ========================================
-INSERT INTO tenants (id, name, contact_email, phone, active) 
+INSERT INTO tenants (id, name, contact_email, phone, active, plan) 
 VALUES 
-  ('550e8400-e29b-41d4-a716-446655440000', 'Clínica Dental ABC', 'contacto@clinicaabc.com', '987654321', true),
-  ('550e8400-e29b-41d4-a716-446655440001', 'Dental Care Premium', 'info@dentalcarepremium.com', '912345678', true)
+  ('550e8400-e29b-41d4-a716-446655440000', 'Clínica Dental ABC', 'contacto@clinicaabc.com', '987654321', true, 'BASIC'),
+  ('550e8400-e29b-41d4-a716-446655440001', 'Dental Care Premium', 'info@dentalcarepremium.com', '912345678', true, 'PROFESSIONAL')
 ON CONFLICT DO NOTHING;
 
 -- ========================================
@@ -211,3 +384,52 @@ VALUES
   ('880e8400-e29b-41d4-a716-446655440111', '550e8400-e29b-41d4-a716-446655440001', '770e8400-e29b-41d4-a716-446655440011', '660e8400-e29b-41d4-a716-446655440012', '2026-02-09 10:00:00', 60, 'SCHEDULED', 'Implantología - evaluación'),
   ('880e8400-e29b-41d4-a716-446655440112', '550e8400-e29b-41d4-a716-446655440001', '770e8400-e29b-41d4-a716-446655440012', '660e8400-e29b-41d4-a716-446655440012', '2026-02-09 13:00:00', 90, 'SCHEDULED', 'Tratamiento de conducto')
 ON CONFLICT DO NOTHING;
+
+-- ========================================
+-- TENANT INTERNO DE WARM-UP (ver StartupWarmUp)
+-- Inactivo y sin contraseña válida: solo recibe las peticiones
+-- sintéticas que calientan cada nodo antes de marcarse listo
+-- ========================================
+INSERT INTO tenants (id, name, contact_email, phone, active, plan)
+VALUES ('ffffffff-0000-4000-8000-000000000001', 'Warm-up (interno)', NULL, NULL, false, 'ENTERPRISE')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO users (id, tenant_id, email, password, first_name, last_name, role, active)
+VALUES ('ffffffff-0000-4000-8000-000000000002', 'ffffffff-0000-4000-8000-000000000001', 'warmup@internal', '!', 'Warm', 'Up', 'DENTIST', false)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO staff (id, tenant_id, user_id, first_name, last_name, specialty, license_number, hire_date, active)
+VALUES ('ffffffff-0000-4000-8000-000000000003', 'ffffffff-0000-4000-8000-000000000001', 'ffffffff-0000-4000-8000-000000000002', 'Warm', 'Up', 'Odontología General', 'WARMUP', '2026-01-01', true)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO patients (id, tenant_id, first_name, last_name, phone, email, birth_date)
+VALUES ('ffffffff-0000-4000-8000-000000000004', 'ffffffff-0000-4000-8000-000000000001', 'Paciente', 'Warm-up', NULL, NULL, '1990-01-01')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO appointments (id, tenant_id, patient_id, dentist_id, start_time, duration_minutes, status, notes)
+VALUES ('ffffffff-0000-4000-8000-000000000005', 'ffffffff-0000-4000-8000-000000000001', 'ffffffff-0000-4000-8000-000000000004', 'ffffffff-0000-4000-8000-000000000002', '2026-01-01 09:00:00', 30, 'SCHEDULED', 'Cita sintética de warm-up')
+ON CONFLICT DO NOTHING;
+
+-- ========================================
+-- INICIALIZACIÓN DE CONTADORES
+-- ========================================
+INSERT INTO tenant_stats (tenant_id, total_patients, active_staff, appointments_pending)
+SELECT t.id,
+       (SELECT COUNT(*) FROM patients p WHERE p.tenant_id = t.id AND p.deleted_at IS NULL),
+       (SELECT COUNT(*) FROM staff s WHERE s.tenant_id = t.id AND s.deleted_at IS NULL),
+       (SELECT COUNT(*) FROM appointments a WHERE a.tenant_id = t.id AND a.status = 'SCHEDULED')
+FROM tenants t
+ON CONFLICT (tenant_id) DO NOTHING;
+
+INSERT INTO tenant_daily_stats (tenant_id, stat_date, appointments)
+SELECT tenant_id, CAST(start_time AS DATE), COUNT(*)
+FROM appointments
+GROUP BY tenant_id, CAST(start_time AS DATE)
+ON CONFLICT (tenant_id, stat_date) DO NOTHING;
+
+-- Marcar todos los días existentes para el primer cálculo del rollup
+INSERT INTO daily_tenant_rollup_dirty (tenant_id, stat_date)
+SELECT tenant_id, CAST(start_time AS DATE) FROM appointments
+UNION
+SELECT tenant_id, CAST(created_at AS DATE) FROM patients
+ON CONFLICT DO NOTHING;
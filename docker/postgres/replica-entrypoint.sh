@@ -0,0 +1,19 @@
+#!/bin/sh
+# Réplica de streaming del primario. La primera vez clona el primario con pg_basebackup -R,
+# que deja standby.signal y primary_conninfo en el directorio de datos; después arranca
+# Postgres como standby de solo lectura. La contraseña se toma de PGPASSWORD.
+set -e
+
+PGDATA="${PGDATA:-/var/lib/postgresql/data}"
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_basebackup -h "${PRIMARY_HOST:-postgres}" -p "${PRIMARY_PORT:-5432}" \
+      -U "${PRIMARY_USER:-dental_user}" -D "$PGDATA" -R -X stream; do
+    echo "Esperando al primario ${PRIMARY_HOST:-postgres}..."
+    rm -rf "${PGDATA:?}"/*
+    sleep 1
+  done
+fi
+chmod 0700 "$PGDATA"
+
+exec postgres
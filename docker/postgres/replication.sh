@@ -0,0 +1,4 @@
+#!/bin/sh
+# Permite conexiones de replicación con contraseña (pg_basebackup y la réplica de streaming).
+# La imagen oficial solo habilita "host all all all", que no cubre la pseudo-base "replication".
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"